@@ -0,0 +1,49 @@
+package org.example.hotelreservation.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.hotelreservation.entity.Role;
+import org.example.hotelreservation.security.AuthenticatedUser;
+import org.example.hotelreservation.security.CachingAuthenticationProvider;
+import org.example.hotelreservation.security.SecurityConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/** Cost of one HTTP Basic credential check: a full BCrypt verification against a cache hit. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuthenticationBenchmark {
+    private DaoAuthenticationProvider bcrypt;
+    private CachingAuthenticationProvider cached;
+
+    @Setup
+    public void setUp() {
+        PasswordEncoder encoder = new SecurityConfig().passwordEncoder();
+        String hash = encoder.encode("guest123");
+        UserDetailsService users = username -> new AuthenticatedUser(1L, username, hash, Role.USER);
+
+        bcrypt = new DaoAuthenticationProvider();
+        bcrypt.setUserDetailsService(users);
+        bcrypt.setPasswordEncoder(encoder);
+        cached = new CachingAuthenticationProvider(users, encoder, new SimpleMeterRegistry(), Duration.ofHours(1), 1000);
+        cached.authenticate(login());
+    }
+
+    private static Authentication login() { return UsernamePasswordAuthenticationToken.unauthenticated("guest", "guest123"); }
+
+    @Benchmark
+    public Authentication bcryptLogin() { return bcrypt.authenticate(login()); }
+
+    @Benchmark
+    public Authentication cachedLogin() { return cached.authenticate(login()); }
+}
\ No newline at end of file
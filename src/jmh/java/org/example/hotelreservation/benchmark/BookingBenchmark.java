@@ -0,0 +1,75 @@
+package org.example.hotelreservation.benchmark;
+
+import org.example.hotelreservation.dto.ReservationRequestDTO;
+import org.example.hotelreservation.dto.RoomRequestDTO;
+import org.example.hotelreservation.dto.UserRequestDTO;
+import org.example.hotelreservation.loadTest.EmbeddedApplication;
+import org.example.hotelreservation.service.ReservationService;
+import org.example.hotelreservation.service.RoomService;
+import org.example.hotelreservation.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ReservationService#createReservation} against the full application on an embedded Postgres:
+ * a booking rejected by the availability check, and a booking that is written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+public class BookingBenchmark {
+    private static final int ROOMS = 100;
+    private static final LocalDate FIRST_NIGHT = LocalDate.now().plusDays(1);
+
+    private EmbeddedApplication app;
+    private ReservationService reservationService;
+    private final List<Long> roomIds = new ArrayList<>();
+    private Long userId;
+    private ReservationRequestDTO taken;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        app = new EmbeddedApplication();
+        ConfigurableApplicationContext context = app.boot();
+        reservationService = context.getBean(ReservationService.class);
+        RoomService roomService = context.getBean(RoomService.class);
+        for (int i = 0; i < ROOMS; i++) { roomIds.add(roomService.createRoom(new RoomRequestDTO("B" + i, "Standard", 100 + i)).getId()); }
+        userId = context.getBean(UserService.class).createUser(new UserRequestDTO("bench", "bench123", "USER")).getId();
+
+        taken = new ReservationRequestDTO(userId, roomIds.getFirst(), FIRST_NIGHT, FIRST_NIGHT.plusDays(2));
+        reservationService.createReservation(taken);
+        next = 2L * ROOMS;
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        app.close();
+    }
+
+    @Benchmark
+    public Object conflictingBooking() {
+        try {
+            return reservationService.createReservation(taken);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    /** Each call books the next free night, walking across all rooms before moving a day ahead. */
+    @Benchmark
+    public Object freshBooking() {
+        long n = next++;
+        LocalDate night = FIRST_NIGHT.plusDays(n / ROOMS);
+        return reservationService.createReservation(new ReservationRequestDTO(userId, roomIds.get((int) (n % ROOMS)), night, night.plusDays(1)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package org.example.hotelreservation.benchmark;
+
+import org.example.hotelreservation.dto.*;
+import org.example.hotelreservation.entity.*;
+import org.example.hotelreservation.util.ReservationMapper;
+import org.example.hotelreservation.util.RoomMapper;
+import org.example.hotelreservation.util.UserMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MapperBenchmark {
+    private Reservation reservation;
+    private ReservationRequestDTO reservationRequest;
+    private Room room;
+    private RoomRequestDTO roomRequest;
+    private User user;
+    private List<Long> reservationIds;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setId(7L);
+        user.setUsername("guest");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+        user.setRole(Role.USER);
+        room = new Room(3L, "301", "Deluxe", 250);
+        reservation = new Reservation();
+        reservation.setId(11L);
+        reservation.setUser(user);
+        reservation.setRoom(room);
+        reservation.setDate(LocalDate.of(2030, 1, 10));
+        reservation.setCheckOut(LocalDate.of(2030, 1, 13));
+        reservationRequest = new ReservationRequestDTO(7L, 3L, LocalDate.of(2030, 1, 10), LocalDate.of(2030, 1, 13));
+        roomRequest = new RoomRequestDTO("301", "Deluxe", 250);
+        reservationIds = LongStream.range(0, 20).boxed().toList();
+    }
+
+    @Benchmark
+    public ReservationResponseDTO reservationToResponse() { return ReservationMapper.toResponse(reservation); }
+
+    @Benchmark
+    public Reservation reservationToEntity() { return ReservationMapper.toEntity(reservationRequest, user, room); }
+
+    @Benchmark
+    public RoomResponseDTO roomToResponse() { return RoomMapper.toResponse(room); }
+
+    @Benchmark
+    public Room roomToEntity() { return RoomMapper.toEntity(roomRequest); }
+
+    @Benchmark
+    public UserResponseDTO userToResponse() { return UserMapper.toResponse(user, reservationIds); }
+}
\ No newline at end of file
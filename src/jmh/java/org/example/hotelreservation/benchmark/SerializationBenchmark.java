@@ -0,0 +1,47 @@
+package org.example.hotelreservation.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.hotelreservation.dto.ReservationResponseDTO;
+import org.example.hotelreservation.dto.UserResponseDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/** Serializes response lists with an ObjectMapper configured the way Spring MVC builds it. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+    @Param({"100", "1000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<ReservationResponseDTO> reservations;
+    private List<UserResponseDTO> users;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        LocalDate day = LocalDate.of(2030, 1, 1);
+        reservations = LongStream.range(0, size)
+                .mapToObj(i -> new ReservationResponseDTO(i, i % 50, i % 200, day.plusDays(i % 365), day.plusDays(i % 365 + 2)))
+                .toList();
+        users = LongStream.range(0, size)
+                .mapToObj(i -> new UserResponseDTO(i, "user" + i, "USER", "$2a$10$abcdefghijklmnopqrstuv", LongStream.range(i * 10, i * 10 + 10).boxed().toList()))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] reservationList() throws JsonProcessingException { return writer.writeValueAsBytes(reservations); }
+
+    @Benchmark
+    public byte[] userList() throws JsonProcessingException { return writer.writeValueAsBytes(users); }
+}
\ No newline at end of file
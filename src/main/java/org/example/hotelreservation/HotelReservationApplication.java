@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EntityScan("org.example.hotelreservation.entity")
 @EnableJpaRepositories("org.example.hotelreservation.repository")
+@EnableScheduling
 public class HotelReservationApplication {
     public static void main(String[] args) { SpringApplication.run(HotelReservationApplication.class, args); }
 }
\ No newline at end of file
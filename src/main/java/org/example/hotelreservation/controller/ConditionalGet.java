@@ -0,0 +1,67 @@
+package org.example.hotelreservation.controller;
+
+import org.example.hotelreservation.service.ReservationVersions;
+import org.example.hotelreservation.service.RoomCatalog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * ETags for read endpoints, built from the change counters of the room catalog and of reservations instead of from
+ * the body. The tag is taken before anything is read, and a request whose {@code If-None-Match} still holds it gets
+ * {@code 304 Not Modified} without the read running at all. Counters restart with the application, so every tag
+ * also carries an epoch chosen at startup.
+ */
+@Component
+public class ConditionalGet {
+    private final String epoch = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+    private final RoomCatalog roomCatalog;
+    private final ReservationVersions reservationVersions;
+    private final CacheControl roomCache;
+
+    public ConditionalGet(RoomCatalog roomCatalog, ReservationVersions reservationVersions,
+                          @Value("${rooms.cache.max-age:60s}") Duration roomMaxAge) {
+        this.roomCatalog = roomCatalog;
+        this.reservationVersions = reservationVersions;
+        this.roomCache = CacheControl.maxAge(roomMaxAge).cachePrivate();
+    }
+
+    /** Room reads, which clients may also reuse for {@code rooms.cache.max-age} without asking. */
+    public <T> ResponseEntity<T> rooms(String ifNoneMatch, Supplier<ResponseEntity<T>> read) {
+        return respond(ifNoneMatch, tag("rooms", roomCatalog.version()), roomCache, read);
+    }
+
+    /** Reads over all reservations. */
+    public <T> ResponseEntity<T> reservations(String ifNoneMatch, Supplier<ResponseEntity<T>> read) {
+        return respond(ifNoneMatch, tag("reservations", reservationVersions.all()), CacheControl.noCache().cachePrivate(), read);
+    }
+
+    /** Reads limited to the reservations of one user. */
+    public <T> ResponseEntity<T> reservationsOf(long userId, String ifNoneMatch, Supplier<ResponseEntity<T>> read) {
+        return respond(ifNoneMatch, tag("reservations-u" + userId, reservationVersions.ofUser(userId)), CacheControl.noCache().cachePrivate(), read);
+    }
+
+    private String tag(String scope, long version) { return "\"" + scope + "-" + epoch + "-" + version + "\""; }
+
+    private static <T> ResponseEntity<T> respond(String ifNoneMatch, String etag, CacheControl cacheControl, Supplier<ResponseEntity<T>> read) {
+        if (matches(ifNoneMatch, etag)) { return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build(); }
+        ResponseEntity<T> response = read.get();
+        return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).eTag(etag).cacheControl(cacheControl).body(response.getBody());
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) { return false; }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) { tag = tag.substring(2); }
+            if (tag.equals("*") || tag.equals(etag)) { return true; }
+        }
+        return false;
+    }
+}
\ No newline at end of file
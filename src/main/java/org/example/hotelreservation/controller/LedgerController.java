@@ -0,0 +1,65 @@
+package org.example.hotelreservation.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.example.hotelreservation.dto.ReservationEventDTO;
+import org.example.hotelreservation.dto.ReservationResponseDTO;
+import org.example.hotelreservation.service.ReservationLedger;
+import org.example.hotelreservation.service.ReservationProjector;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/ledger")
+@RequiredArgsConstructor
+@Tag(name = "Reservation ledger", description = "Audit history of reservations and state reconstruction (ADMIN only)")
+public class LedgerController {
+    private final ReservationLedger ledger;
+    private final ReservationProjector projector;
+    private final Pagination pagination;
+
+    private boolean isUnauthorized(Authentication auth) {
+        return auth == null || auth.getAuthorities().stream().noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+    }
+
+    @GetMapping("/reservations/{id}")
+    @Operation(summary = "Reservation history", description = "Every recorded change of a reservation, oldest first")
+    public ResponseEntity<List<ReservationEventDTO>> getHistory(@Parameter(description = "ID of the reservation") @PathVariable Long id,
+                                                                @Parameter(hidden = true) Authentication auth) {
+        if (isUnauthorized(auth)) { throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only ADMIN can read the ledger"); }
+        return ResponseEntity.ok(ledger.history(id));
+    }
+
+    @GetMapping("/state")
+    @Operation(summary = "Reservations at a point in time", description = "Reconstructs the reservations that existed at the given time from the latest snapshot and the events after it, "
+            + "one page at a time; a page may hold fewer reservations than asked for and still be followed by another")
+    public ResponseEntity<List<ReservationResponseDTO>> getStateAt(@Parameter(description = "Point in time (ISO-8601 with offset)", example = "2025-06-01T12:00:00Z") @RequestParam String at,
+                                                                   @Parameter(description = "Cursor from the previous page's X-Next-Cursor header") @RequestParam(required = false) String cursor,
+                                                                   @Parameter(description = "Page size") @RequestParam(required = false) Integer size,
+                                                                   @Parameter(hidden = true) Authentication auth) {
+        if (isUnauthorized(auth)) { throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only ADMIN can read the ledger"); }
+        return pagination.ok(projector.stateAt(OffsetDateTime.parse(at), pagination.after(cursor), pagination.size(size)));
+    }
+
+    @PostMapping("/snapshots")
+    @Operation(summary = "Take a snapshot", description = "Stores the current state so later replays start from here; returns the last event it covers")
+    public ResponseEntity<Long> takeSnapshot(@Parameter(hidden = true) Authentication auth) {
+        if (isUnauthorized(auth)) { throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only ADMIN can take snapshots"); }
+        return ResponseEntity.ok(projector.snapshot());
+    }
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "Rebuild reservations", description = "Replaces the current reservations with the state replayed from the ledger and reloads availability; returns the number of reservations")
+    public ResponseEntity<Integer> rebuild(@Parameter(hidden = true) Authentication auth) {
+        if (isUnauthorized(auth)) { throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only ADMIN can rebuild reservations"); }
+        return ResponseEntity.ok(projector.rebuild());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package org.example.hotelreservation.controller;
+
+import org.example.hotelreservation.dto.PageDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset paging for list endpoints. The body stays a plain JSON array; when more rows exist the opaque cursor
+ * for the next page is sent in the {@value #NEXT_CURSOR} header and passed back as {@code ?cursor=}.
+ */
+@Component
+public class Pagination {
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+    private static final String PREFIX = "after:";
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public Pagination(@Value("${pagination.default-size:100}") int defaultSize, @Value("${pagination.max-size:1000}") int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    public long after(String cursor) {
+        if (cursor == null || cursor.isBlank()) { return 0L; }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) { throw new IllegalArgumentException(decoded); }
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    public int size(Integer requested) {
+        if (requested == null) { return defaultSize; }
+        if (requested < 1) { throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be positive"); }
+        return Math.min(requested, maxSize);
+    }
+
+    public <T> ResponseEntity<List<T>> ok(PageDTO<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextAfter() != null) {
+            response.header(NEXT_CURSOR, Base64.getUrlEncoder().withoutPadding().encodeToString((PREFIX + page.getNextAfter()).getBytes(StandardCharsets.UTF_8)));
+        }
+        return response.body(page.getItems());
+    }
+}
\ No newline at end of file
@@ -4,27 +4,44 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.example.hotelreservation.dto.*;
 import org.example.hotelreservation.entity.User;
+import org.example.hotelreservation.security.AuthenticatedUser;
+import org.example.hotelreservation.service.ReservationChangeFeed;
+import org.example.hotelreservation.service.ReservationExportService;
+import org.example.hotelreservation.service.ReservationImportService;
 import org.example.hotelreservation.service.ReservationService;
 import org.example.hotelreservation.service.UserService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/reservations")
 @RequiredArgsConstructor
 @Tag(name = "Reservations", description = "Creating and managing reservations")
 public class ReservationController {
+    private static final int MAX_CHANGES_WAIT_SECONDS = 30;
 
     private final ReservationService reservationService;
+    private final ReservationImportService reservationImportService;
+    private final ReservationExportService reservationExportService;
+    private final ReservationChangeFeed reservationChangeFeed;
+    private final Pagination pagination;
+    private final ConditionalGet conditionalGet;
     private final UserService userService;
 
     private boolean isUnauthorized(Authentication auth) {
@@ -32,12 +49,13 @@ public class ReservationController {
     }
 
     private Long getCurrentUserId(Authentication auth) {
+        if (auth.getPrincipal() instanceof AuthenticatedUser user) { return user.id(); }
         return userService.findByUsername(auth.getName()).map(User::getId).orElseThrow(()
                 -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Current user not found"));
     }
 
     @PostMapping
-    @Operation(summary = "Create a reservation", description = "Books a room for a user on a specified date")
+    @Operation(summary = "Create a reservation", description = "Books a room for a user from the check-in date until the check-out date (one night when check-out is omitted)")
     public ResponseEntity<ReservationResponseDTO> createReservation(@Parameter(description = "Reservation details") @Valid @RequestBody ReservationRequestDTO dto,
                                                                     @Parameter(hidden = true) Authentication auth) {
         if (isUnauthorized(auth) && !dto.getUserId().equals(getCurrentUserId(auth))) {
@@ -46,6 +64,45 @@ public class ReservationController {
         return ResponseEntity.ok(reservationService.createReservation(dto));
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Bulk import reservations", description = "Imports a JSON array or NDJSON stream of reservations (ADMIN only) and reports the outcome of every row")
+    public ResponseEntity<BulkReservationResultDTO> importReservations(@Parameter(hidden = true) HttpServletRequest request,
+                                                                       @Parameter(hidden = true) Authentication auth) throws IOException {
+        if (isUnauthorized(auth)) { throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only ADMIN can import reservations"); }
+        return ResponseEntity.ok(reservationImportService.importReservations(request.getInputStream()));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export reservations", description = "Streams every reservation as NDJSON or CSV (ADMIN only)")
+    public ResponseEntity<StreamingResponseBody> exportReservations(@Parameter(description = "Output format", example = "NDJSON") @RequestParam(defaultValue = "NDJSON") ReservationExportService.Format format,
+                                                                    @Parameter(hidden = true) Authentication auth) {
+        if (isUnauthorized(auth)) { throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only ADMIN can export reservations"); }
+        MediaType type = format == ReservationExportService.Format.CSV ? MediaType.parseMediaType("text/csv") : MediaType.APPLICATION_NDJSON;
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=reservations." + format.name().toLowerCase())
+                .body(out -> reservationExportService.export(format, out));
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Reservation change feed", description = "Returns the reservation changes after the cursor, oldest first (ADMIN only). "
+            + "The cursor to pass next time is always returned in the X-Next-Cursor header; with wait, an empty answer is held back until changes arrive or the wait ends")
+    public CompletableFuture<ResponseEntity<List<ReservationEventDTO>>> getChanges(@Parameter(description = "Cursor from the previous response's X-Next-Cursor header; omitted to start from the first change") @RequestParam(required = false) String since,
+                                                                                   @Parameter(description = "Maximum number of changes") @RequestParam(required = false) Integer size,
+                                                                                   @Parameter(description = "Seconds to wait for changes when there are none (0-" + MAX_CHANGES_WAIT_SECONDS + ")") @RequestParam(defaultValue = "0") int wait,
+                                                                                   @Parameter(hidden = true) Authentication auth) {
+        if (isUnauthorized(auth)) { throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only ADMIN can read the change feed"); }
+        if (wait < 0 || wait > MAX_CHANGES_WAIT_SECONDS) { throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Wait must be between 0 and " + MAX_CHANGES_WAIT_SECONDS + " seconds"); }
+        ReservationChangeFeed.Cursor cursor;
+        try {
+            cursor = ReservationChangeFeed.Cursor.parse(since);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        return reservationChangeFeed.await(cursor, pagination.size(size), Duration.ofSeconds(wait))
+                .thenApply(changes -> ResponseEntity.ok().header(Pagination.NEXT_CURSOR, changes.next().encode()).body(changes.events()));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get reservation by ID", description = "Retrieves a reservation by its unique ID")
     public ResponseEntity<ReservationResponseDTO> getReservationById(@Parameter(description = "ID of the reservation") @PathVariable Long id,
@@ -58,37 +115,50 @@ public class ReservationController {
     }
 
     @GetMapping("/user/{userId}")
-    @Operation(summary = "Get reservations for a user", description = "Returns all reservations made by a specific user")
+    @Operation(summary = "Get reservations for a user", description = "Returns reservations made by a specific user, one page at a time")
     public ResponseEntity<List<ReservationResponseDTO>> getUserReservations(@Parameter(description = "ID of the user") @PathVariable Long userId,
+                                                                            @Parameter(description = "Cursor from the previous page's X-Next-Cursor header") @RequestParam(required = false) String cursor,
+                                                                            @Parameter(description = "Page size") @RequestParam(required = false) Integer size,
+                                                                            @Parameter(description = "ETag of a copy already held") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
                                                                             @Parameter(hidden = true) Authentication auth) {
         if (isUnauthorized(auth) && !userId.equals(getCurrentUserId(auth))) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
         }
-        return ResponseEntity.ok(reservationService.getReservationsByUser(userId));
+        long after = pagination.after(cursor);
+        int pageSize = pagination.size(size);
+        return conditionalGet.reservationsOf(userId, ifNoneMatch, () -> pagination.ok(reservationService.getReservationsByUser(userId, after, pageSize)));
     }
 
     @GetMapping("/date")
-    @Operation(summary = "Get reservations by date", description = "Fetches all reservations for a given date (YYYY-MM-DD)")
+    @Operation(summary = "Get reservations by date", description = "Fetches all reservations covering the night of a given date (YYYY-MM-DD)")
     public ResponseEntity<List<ReservationResponseDTO>> getReservationsByDate(@Parameter(description = "Date to filter reservations by", example = "2025-05-01")
-                                                                                  @RequestParam String date, @Parameter(hidden = true) Authentication auth) {
+                                                                                  @RequestParam String date,
+                                                                              @Parameter(description = "ETag of a copy already held") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                              @Parameter(hidden = true) Authentication auth) {
         LocalDate parsedDate = LocalDate.parse(date);
 
         if (isUnauthorized(auth)) {
             Long currentUserId = getCurrentUserId(auth);
-            return ResponseEntity.ok(reservationService.getReservationsByDateAndUser(parsedDate, currentUserId));
+            return conditionalGet.reservationsOf(currentUserId, ifNoneMatch, () -> ResponseEntity.ok(reservationService.getReservationsByDateAndUser(parsedDate, currentUserId)));
         }
 
-        return ResponseEntity.ok(reservationService.getReservationsByDate(parsedDate));
+        return conditionalGet.reservations(ifNoneMatch, () -> ResponseEntity.ok(reservationService.getReservationsByDate(parsedDate)));
     }
 
     @GetMapping
-    @Operation(summary = "List all reservations", description = "Returns all reservations (ADMIN) or only your own (USER)")
-    public ResponseEntity<List<ReservationResponseDTO>> getAllReservations(@Parameter(hidden = true) Authentication auth) {
+    @Operation(summary = "List all reservations", description = "Returns all reservations (ADMIN) or only your own (USER), one page at a time; the next page cursor is returned in the X-Next-Cursor header. "
+            + "Answers 304 when If-None-Match holds the current ETag")
+    public ResponseEntity<List<ReservationResponseDTO>> getAllReservations(@Parameter(description = "Cursor from the previous page's X-Next-Cursor header") @RequestParam(required = false) String cursor,
+                                                                           @Parameter(description = "Page size") @RequestParam(required = false) Integer size,
+                                                                           @Parameter(description = "ETag of a copy already held") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                           @Parameter(hidden = true) Authentication auth) {
+        long after = pagination.after(cursor);
+        int pageSize = pagination.size(size);
         if (isUnauthorized(auth)) {
             Long userId = getCurrentUserId(auth);
-            return ResponseEntity.ok(reservationService.getReservationsByUser(userId));
+            return conditionalGet.reservationsOf(userId, ifNoneMatch, () -> pagination.ok(reservationService.getReservationsByUser(userId, after, pageSize)));
         }
-        return ResponseEntity.ok(reservationService.getAllReservations());
+        return conditionalGet.reservations(ifNoneMatch, () -> pagination.ok(reservationService.getAllReservations(after, pageSize)));
     }
 
     @PutMapping("/{id}")
@@ -6,13 +6,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.example.hotelreservation.dto.RoomRequestDTO;
 import org.example.hotelreservation.dto.RoomResponseDTO;
+import org.example.hotelreservation.service.AvailabilityStream;
 import org.example.hotelreservation.service.RoomService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -21,6 +26,9 @@ import java.util.List;
 @Tag(name = "Rooms", description = "Operations for managing hotel rooms")
 public class RoomController {
     private final RoomService roomService;
+    private final Pagination pagination;
+    private final ConditionalGet conditionalGet;
+    private final AvailabilityStream availabilityStream;
 
     private boolean isUnauthorized(Authentication auth) {
         return auth == null || auth.getAuthorities().stream().noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
@@ -35,20 +43,49 @@ public class RoomController {
     }
 
     @GetMapping
-    @Operation(summary = "List all rooms", description = "Retrieves a list of all hotel rooms")
-    public ResponseEntity<List<RoomResponseDTO>> getAllRooms() { return ResponseEntity.ok(roomService.getAllRoomsDto()); }
+    @Operation(summary = "List all rooms", description = "Retrieves hotel rooms one page at a time; the next page cursor is returned in the X-Next-Cursor header. "
+            + "Answers 304 when If-None-Match holds the current ETag")
+    public ResponseEntity<List<RoomResponseDTO>> getAllRooms(@Parameter(description = "Cursor from the previous page's X-Next-Cursor header") @RequestParam(required = false) String cursor,
+                                                             @Parameter(description = "Page size") @RequestParam(required = false) Integer size,
+                                                             @Parameter(description = "ETag of a copy already held") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        long after = pagination.after(cursor);
+        int pageSize = pagination.size(size);
+        return conditionalGet.rooms(ifNoneMatch, () -> pagination.ok(roomService.getAllRoomsDto(after, pageSize)));
+    }
+
+    @GetMapping("/available")
+    @Operation(summary = "Search available rooms", description = "Lists rooms free on every night from check-in until check-out, cheapest first")
+    public ResponseEntity<List<RoomResponseDTO>> getAvailableRooms(@Parameter(description = "Check-in date (YYYY-MM-DD)", example = "2025-06-01") @RequestParam String from,
+                                                                   @Parameter(description = "Check-out date (YYYY-MM-DD), exclusive", example = "2025-06-04") @RequestParam String to,
+                                                                   @Parameter(description = "Standard to filter rooms by", example = "Deluxe") @RequestParam(required = false) String standard,
+                                                                   @Parameter(description = "Maximum price per night") @RequestParam(required = false) Double maxPrice) {
+        return ResponseEntity.ok(roomService.findAvailableRooms(LocalDate.parse(from), LocalDate.parse(to), standard, maxPrice));
+    }
+
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream room availability", description = "Server-Sent Events for the nights from the start date until the end date (at most " + AvailabilityStream.MAX_DAYS + " days): "
+            + "first a snapshot event with the booked nights, then availability events with the nights whose state changed")
+    public SseEmitter streamAvailability(@Parameter(description = "First night (YYYY-MM-DD), today or later", example = "2025-06-01") @RequestParam String from,
+                                         @Parameter(description = "End date (YYYY-MM-DD), exclusive", example = "2025-06-08") @RequestParam String to,
+                                         @Parameter(description = "Only rooms of this standard", example = "Deluxe") @RequestParam(required = false) String standard,
+                                         @Parameter(description = "Only this room") @RequestParam(required = false) Long roomId,
+                                         @Parameter(hidden = true) Authentication auth) {
+        return availabilityStream.subscribe(LocalDate.parse(from), LocalDate.parse(to), standard, roomId, auth.getName());
+    }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get room by ID", description = "Retrieves details of a room by its ID")
-    public ResponseEntity<RoomResponseDTO> getRoomById(@Parameter(description = "ID of the room") @PathVariable Long id) {
-        return ResponseEntity.ok(roomService.getRoomDtoById(id));
+    public ResponseEntity<RoomResponseDTO> getRoomById(@Parameter(description = "ID of the room") @PathVariable Long id,
+                                                       @Parameter(description = "ETag of a copy already held") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalGet.rooms(ifNoneMatch, () -> ResponseEntity.ok(roomService.getRoomDtoById(id)));
     }
 
     @GetMapping("/search")
     @Operation(summary = "Search rooms by standard", description = "Finds all rooms matching the given standard")
     public ResponseEntity<List<RoomResponseDTO>> getRoomsByStandard(@Parameter(description = "Standard to filter rooms by", example = "Deluxe")
-                                                                        @RequestParam String standard) {
-        return ResponseEntity.ok(roomService.getRoomsByStandardDto(standard));
+                                                                        @RequestParam String standard,
+                                                                    @Parameter(description = "ETag of a copy already held") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalGet.rooms(ifNoneMatch, () -> ResponseEntity.ok(roomService.getRoomsByStandardDto(standard)));
     }
 
     @PutMapping("/{id}")
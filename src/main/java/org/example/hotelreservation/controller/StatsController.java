@@ -0,0 +1,44 @@
+package org.example.hotelreservation.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.example.hotelreservation.dto.OccupancyDTO;
+import org.example.hotelreservation.service.OccupancyStatsService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@Tag(name = "Statistics", description = "Occupancy and revenue figures for dashboards")
+public class StatsController {
+    private final OccupancyStatsService occupancyStatsService;
+
+    private boolean isUnauthorized(Authentication auth) {
+        return auth == null || auth.getAuthorities().stream().noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+    }
+
+    @GetMapping("/occupancy")
+    @Operation(summary = "Daily occupancy and revenue", description = "Booked rooms, occupancy and revenue per night and room standard from the start date until the end date (ADMIN only)")
+    public ResponseEntity<List<OccupancyDTO>> getOccupancy(@Parameter(description = "First night (YYYY-MM-DD)", example = "2025-06-01") @RequestParam String from,
+                                                           @Parameter(description = "End date (YYYY-MM-DD), exclusive", example = "2025-07-01") @RequestParam String to,
+                                                           @Parameter(hidden = true) Authentication auth) {
+        if (isUnauthorized(auth)) { throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only ADMIN can view statistics"); }
+        return ResponseEntity.ok(occupancyStatsService.getOccupancy(LocalDate.parse(from), LocalDate.parse(to)));
+    }
+
+    @PostMapping("/occupancy/rebuild")
+    @Operation(summary = "Rebuild occupancy statistics", description = "Recomputes all daily figures from the reservations and current room prices (ADMIN only); returns the number of rows written")
+    public ResponseEntity<Integer> rebuildOccupancy(@Parameter(hidden = true) Authentication auth) {
+        if (isUnauthorized(auth)) { throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only ADMIN can rebuild statistics"); }
+        return ResponseEntity.ok(occupancyStatsService.rebuild());
+    }
+}
\ No newline at end of file
@@ -8,16 +8,14 @@ import lombok.RequiredArgsConstructor;
 import org.example.hotelreservation.dto.UserRequestDTO;
 import org.example.hotelreservation.dto.UserResponseDTO;
 import org.example.hotelreservation.entity.User;
+import org.example.hotelreservation.security.AuthenticatedUser;
 import org.example.hotelreservation.service.UserService;
-import org.example.hotelreservation.util.UserMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
@@ -26,12 +24,14 @@ import java.util.stream.Collectors;
 public class UserController {
 
     private final UserService userService;
+    private final Pagination pagination;
 
     private boolean isAdmin(Authentication auth) {
         return auth.getAuthorities().stream().anyMatch(ga -> ga.getAuthority().equals("ROLE_ADMIN"));
     }
 
     private Long getCurrentUserId(Authentication auth) {
+        if (auth.getPrincipal() instanceof AuthenticatedUser user) { return user.id(); }
         return userService.findByUsername(auth.getName()).map(User::getId).orElseThrow(() ->
                 new ResponseStatusException(HttpStatus.NOT_FOUND, "Current user not found"));
     }
@@ -63,11 +63,7 @@ public class UserController {
     ) {
         if (isAdmin(auth) || isSelf(auth, id)) { return ResponseEntity.ok(userService.getUserDTOById(id)); }
 
-        return ResponseEntity.ok(userService.getAllUsersSummary()
-                .stream()
-                .filter(sum -> sum.getId().equals(id))
-                .findFirst()
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)));
+        return ResponseEntity.ok(userService.findUserSummaryById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)));
     }
 
     @GetMapping("/username/{username}")
@@ -84,13 +80,16 @@ public class UserController {
     }
 
     @GetMapping
-    @Operation(summary = "List users", description = "Lists all users. Admins get full data, others only summaries.")
-    public ResponseEntity<?> listUsers(@Parameter(hidden = true) Authentication auth) {
+    @Operation(summary = "List users", description = "Lists users one page at a time. Admins get full data, others only summaries.")
+    public ResponseEntity<?> listUsers(@Parameter(description = "Cursor from the previous page's X-Next-Cursor header") @RequestParam(required = false) String cursor,
+                                       @Parameter(description = "Page size") @RequestParam(required = false) Integer size,
+                                       @Parameter(hidden = true) Authentication auth) {
+        long after = pagination.after(cursor);
+        int pageSize = pagination.size(size);
         if (isAdmin(auth)) {
-            List<UserResponseDTO> all = userService.getAllUsers().stream().map(UserMapper::toResponse).collect(Collectors.toList());
-            return ResponseEntity.ok(all);
+            return pagination.ok(userService.getAllUsersDto(after, pageSize));
         }
-        return ResponseEntity.ok(userService.getAllUsersSummary());
+        return pagination.ok(userService.getAllUsersSummary(after, pageSize));
     }
 
     @PutMapping("/{id}")
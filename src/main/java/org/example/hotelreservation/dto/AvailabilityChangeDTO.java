@@ -0,0 +1,15 @@
+package org.example.hotelreservation.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityChangeDTO {
+    private Long roomId;
+    private LocalDate date;
+    private boolean available;
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package org.example.hotelreservation.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReservationResultDTO {
+    private int created;
+    private int rejected;
+    private List<BulkReservationRowDTO> rows = new ArrayList<>();
+}
\ No newline at end of file
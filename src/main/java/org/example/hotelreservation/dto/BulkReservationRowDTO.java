@@ -0,0 +1,14 @@
+package org.example.hotelreservation.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReservationRowDTO {
+    private int index;
+    private String status;
+    private Long reservationId;
+    private String message;
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package org.example.hotelreservation.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyDTO {
+    private LocalDate date;
+    private String standard;
+    private int rooms;
+    private int bookedRooms;
+    private double occupancy;
+    private BigDecimal revenue;
+}
\ No newline at end of file
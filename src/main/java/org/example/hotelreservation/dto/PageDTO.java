@@ -0,0 +1,20 @@
+package org.example.hotelreservation.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@AllArgsConstructor
+public class PageDTO<T> {
+    private List<T> items;
+    private Long nextAfter;
+
+    /** Builds a page from up to {@code size + 1} rows read after the cursor; the extra row only tells that another page exists. */
+    public static <E, T> PageDTO<T> of(List<E> rows, int size, Function<E, Long> idOf, Function<E, T> mapper) {
+        List<E> page = rows.size() > size ? rows.subList(0, size) : rows;
+        Long nextAfter = rows.size() > size ? idOf.apply(page.getLast()) : null;
+        return new PageDTO<>(page.stream().map(mapper).toList(), nextAfter);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package org.example.hotelreservation.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationEventDTO {
+    private long seq;
+    private Long reservationId;
+    private String type;
+    private Long userId;
+    private Long roomId;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private OffsetDateTime recordedAt;
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package org.example.hotelreservation.dto;
 
+import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -20,4 +21,7 @@ public class ReservationRequestDTO {
     @NotNull(message = "Date is required")
     @FutureOrPresent(message = "Date cannot be in the past")
     private LocalDate date;
+
+    @Future(message = "Check-out date must be in the future")
+    private LocalDate checkOut;
 }
\ No newline at end of file
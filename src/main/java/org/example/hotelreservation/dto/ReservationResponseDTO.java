@@ -13,4 +13,5 @@ public class ReservationResponseDTO {
     private Long userId;
     private Long roomId;
     private LocalDate date;
+    private LocalDate checkOut;
 }
\ No newline at end of file
@@ -6,24 +6,31 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", uniqueConstraints = @UniqueConstraint(name = "uq_reservation_room_date", columnNames = {"room_id", "date"}))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Reservation {
+    /** Longest stay that can be booked; also enforced by ck_reservation_stay and relied on by partition pruning. */
+    public static final int MAX_NIGHTS = 90;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservations_id_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "room_id", nullable = false)
     private Room room;
 
     @Column(nullable = false)
     private LocalDate date;
+
+    @Column(name = "check_out", nullable = false)
+    private LocalDate checkOut;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package org.example.hotelreservation.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published by the room availability index once it has applied a booking change, whether made by this instance or
+ * read from the reservation ledger. {@code released} is null for a new booking, {@code booked} is null for a
+ * cancellation; both are null after a wholesale reload, when any night may have changed.
+ */
+public record AvailabilityChangedEvent(Stay released, Stay booked) {
+
+    public record Stay(Long roomId, LocalDate checkIn, LocalDate checkOut) {}
+
+    public static AvailabilityChangedEvent reloaded() { return new AvailabilityChangedEvent(null, null); }
+
+    public boolean isReload() { return released == null && booked == null; }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package org.example.hotelreservation.event;
+
+import org.example.hotelreservation.entity.Reservation;
+
+import java.time.LocalDate;
+
+/**
+ * Published by the reservation service whenever a booking is created, moved or cancelled.
+ * {@code previous} is null for a new booking, {@code current} is null for a cancellation.
+ */
+public record ReservationChangedEvent(Long reservationId, Booking previous, Booking current) {
+
+    public record Booking(Long userId, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        public static Booking of(Reservation r) { return new Booking(r.getUser().getId(), r.getRoom().getId(), r.getDate(), r.getCheckOut()); }
+    }
+
+    /** How the change is recorded in the reservation ledger: CREATED, MOVED or CANCELLED. */
+    public String type() { return previous == null ? "CREATED" : current == null ? "CANCELLED" : "MOVED"; }
+
+    public static ReservationChangedEvent created(Reservation r) { return new ReservationChangedEvent(r.getId(), null, Booking.of(r)); }
+
+    public static ReservationChangedEvent moved(Booking previous, Reservation r) { return new ReservationChangedEvent(r.getId(), previous, Booking.of(r)); }
+
+    public static ReservationChangedEvent cancelled(Reservation r) { return new ReservationChangedEvent(r.getId(), Booking.of(r), null); }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package org.example.hotelreservation.event;
+
+import org.example.hotelreservation.entity.Room;
+
+/**
+ * Published by the room service after a room is created, updated or deleted; {@code room} is null for a deletion.
+ */
+public record RoomChangedEvent(Long roomId, Room room) {
+
+    public static RoomChangedEvent saved(Room room) { return new RoomChangedEvent(room.getId(), room); }
+
+    public static RoomChangedEvent deleted(Long roomId) { return new RoomChangedEvent(roomId, null); }
+}
\ No newline at end of file
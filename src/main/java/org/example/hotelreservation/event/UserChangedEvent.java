@@ -0,0 +1,7 @@
+package org.example.hotelreservation.event;
+
+/**
+ * Published by the user service after a user's credentials or role may have changed, or the user was deleted.
+ */
+public record UserChangedEvent(Long userId) {
+}
\ No newline at end of file
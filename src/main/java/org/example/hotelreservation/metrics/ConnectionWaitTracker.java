@@ -0,0 +1,70 @@
+package org.example.hotelreservation.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Measures how long the current thread waits for pooled connections between {@link #begin()} and {@link #end()}.
+ * The pool's own {@code hikaricp.*} meters say that callers are queuing; this says which requests are. The
+ * application's {@link DataSource} is wrapped once at startup; connections taken outside a tracked section
+ * (startup, scheduled and async work) are not counted.
+ */
+@Component
+public class ConnectionWaitTracker implements BeanPostProcessor {
+    private static final ThreadLocal<Wait> WAIT = new ThreadLocal<>();
+
+    /** Time spent in {@code getConnection}, connections obtained and acquisitions that timed out. */
+    public static final class Wait {
+        private long nanos;
+        private int connections;
+        private int timeouts;
+
+        public long nanos() { return nanos; }
+
+        public int connections() { return connections; }
+
+        public int timeouts() { return timeouts; }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof TrackingDataSource)) { return new TrackingDataSource(dataSource); }
+        return bean;
+    }
+
+    public void begin() { WAIT.set(new Wait()); }
+
+    /** Stops tracking and returns what was waited since {@link #begin()}. */
+    public Wait end() {
+        Wait wait = WAIT.get();
+        WAIT.remove();
+        return wait == null ? new Wait() : wait;
+    }
+
+    private static final class TrackingDataSource extends DelegatingDataSource {
+        TrackingDataSource(DataSource target) { super(target); }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Wait wait = WAIT.get();
+            if (wait == null) { return super.getConnection(); }
+            long start = System.nanoTime();
+            try {
+                Connection connection = super.getConnection();
+                wait.connections++;
+                return connection;
+            } catch (SQLTransientConnectionException e) {
+                wait.timeouts++;
+                throw e;
+            } finally {
+                wait.nanos += System.nanoTime() - start;
+            }
+        }
+    }
+}
\ No newline at end of file
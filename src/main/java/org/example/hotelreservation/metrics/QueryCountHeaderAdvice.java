@@ -0,0 +1,36 @@
+package org.example.hotelreservation.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds {@value #HEADER} with the SQL statements the request has run so far, just before its body is written.
+ * Enabled with {@code metrics.query-count-header=true} (the {@code dev} profile and tests), so an N+1 shows up
+ * in every response and tests can put an upper bound on it.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "metrics.query-count-header", havingValue = "true")
+@RequiredArgsConstructor
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+    public static final String HEADER = "X-Query-Count";
+
+    private final QueryCounter queryCounter;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) { return true; }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType, Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        int queries = queryCounter.current();
+        if (queries >= 0) { response.getHeaders().set(HEADER, Integer.toString(queries)); }
+        return body;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package org.example.hotelreservation.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #begin()} and {@link #end()}.
+ * Registers itself as the session factory's {@link StatementInspector}; statements outside a counted section
+ * (startup, async work) pass through untouched.
+ */
+@Component
+public class QueryCounter implements StatementInspector, HibernatePropertiesCustomizer {
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) { hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this); }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) { count[0]++; }
+        return sql;
+    }
+
+    public void begin() { COUNT.set(new int[1]); }
+
+    /** Statements so far in the current counted section, or -1 outside one. */
+    public int current() {
+        int[] count = COUNT.get();
+        return count == null ? -1 : count[0];
+    }
+
+    /** Stops counting and returns the number of statements since {@link #begin()}. */
+    public int end() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package org.example.hotelreservation.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-endpoint request metrics next to Spring's {@code http.server.requests}: {@code http.server.request.queries},
+ * the SQL statements a request ran (authentication included, as this filter sits in front of Spring Security),
+ * {@code http.server.response.size}, the bytes of the response body, and {@code http.server.request.connection.wait}
+ * and {@code .timeouts}, the time the request queued for pooled connections and how often that gave up. All are
+ * tagged with the method and the matched URI pattern. Asynchronous (streamed) responses are not recorded. A request running more statements
+ * than {@code metrics.query-budget} is logged as a likely N+1.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    private final QueryCounter queryCounter;
+    private final ConnectionWaitTracker connectionWaitTracker;
+    private final MeterRegistry meterRegistry;
+    private final int queryBudget;
+
+    public RequestMetricsFilter(QueryCounter queryCounter, ConnectionWaitTracker connectionWaitTracker, MeterRegistry meterRegistry,
+                                @Value("${metrics.query-budget:50}") int queryBudget) {
+        this.queryCounter = queryCounter;
+        this.connectionWaitTracker = connectionWaitTracker;
+        this.meterRegistry = meterRegistry;
+        this.queryBudget = queryBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        CountingResponse counting = new CountingResponse(response);
+        queryCounter.begin();
+        connectionWaitTracker.begin();
+        try {
+            chain.doFilter(request, counting);
+        } finally {
+            int queries = queryCounter.end();
+            ConnectionWaitTracker.Wait wait = connectionWaitTracker.end();
+            if (!request.isAsyncStarted()) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+                summary("http.server.request.queries", "queries", request.getMethod(), uri).record(queries);
+                if (queries > queryBudget) { log.warn("{} {} ran {} SQL statements (budget {})", request.getMethod(), uri, queries, queryBudget); }
+                summary("http.server.response.size", "bytes", request.getMethod(), uri).record(counting.bytes);
+                if (wait.connections() > 0 || wait.timeouts() > 0) {
+                    Timer.builder("http.server.request.connection.wait").tag("method", request.getMethod()).tag("uri", uri)
+                            .register(meterRegistry).record(wait.nanos(), TimeUnit.NANOSECONDS);
+                }
+                if (wait.timeouts() > 0) {
+                    meterRegistry.counter("http.server.request.connection.timeouts", "method", request.getMethod(), "uri", uri).increment(wait.timeouts());
+                }
+            }
+        }
+    }
+
+    private DistributionSummary summary(String name, String unit, String method, String uri) {
+        return DistributionSummary.builder(name).baseUnit(unit).tag("method", method).tag("uri", uri).register(meterRegistry);
+    }
+
+    /** Counts what the handler writes through {@link #getOutputStream()}, which is how message converters write bodies. */
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private long bytes;
+        private ServletOutputStream stream;
+
+        CountingResponse(HttpServletResponse response) { super(response); }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                ServletOutputStream target = super.getOutputStream();
+                stream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        target.write(b);
+                        bytes++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        target.write(b, off, len);
+                        bytes += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException { target.flush(); }
+
+                    @Override
+                    public void close() throws IOException { target.close(); }
+
+                    @Override
+                    public boolean isReady() { return target.isReady(); }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) { target.setWriteListener(listener); }
+                };
+            }
+            return stream;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package org.example.hotelreservation.repository;
+
+import java.time.LocalDate;
+
+public interface BookedStayView {
+    Long getRoomId();
+    LocalDate getCheckIn();
+    LocalDate getCheckOut();
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package org.example.hotelreservation.repository;
+
+public interface ReservationIdView {
+    Long getUserId();
+    Long getId();
+}
\ No newline at end of file
@@ -1,13 +1,64 @@
 package org.example.hotelreservation.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.hotelreservation.dto.ReservationResponseDTO;
 import org.example.hotelreservation.entity.Reservation;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
-    List<Reservation> findByDate(LocalDate date);
-    List<Reservation> findByUserId(Long userId);
-    List<Reservation> findByDateAndUserId(LocalDate date, Long userId);
-    boolean existsByRoomIdAndDate(Long roomId, LocalDate date);
+    /** Stays covering the night of {@code date}. */
+    default List<ReservationResponseDTO> findResponsesByDate(LocalDate date) { return findResponsesCoveringNight(date, earliestCheckIn(date)); }
+
+    @Query("select new org.example.hotelreservation.dto.ReservationResponseDTO(r.id, r.user.id, r.room.id, r.date, r.checkOut) from Reservation r where r.date > :earliest and r.date <= :date and r.checkOut > :date order by r.id")
+    List<ReservationResponseDTO> findResponsesCoveringNight(@Param("date") LocalDate date, @Param("earliest") LocalDate earliest);
+
+    @Query("select new org.example.hotelreservation.dto.ReservationResponseDTO(r.id, r.user.id, r.room.id, r.date, r.checkOut) from Reservation r where r.id > :after order by r.id")
+    List<ReservationResponseDTO> findResponsesAfter(@Param("after") Long after, Limit limit);
+
+    @Query("select new org.example.hotelreservation.dto.ReservationResponseDTO(r.id, r.user.id, r.room.id, r.date, r.checkOut) from Reservation r where r.user.id = :userId and r.id > :after order by r.id")
+    List<ReservationResponseDTO> findResponsesByUserIdAfter(@Param("userId") Long userId, @Param("after") Long after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new org.example.hotelreservation.dto.ReservationResponseDTO(r.id, r.user.id, r.room.id, r.date, r.checkOut) from Reservation r order by r.id")
+    Stream<ReservationResponseDTO> streamAllForExport();
+
+    @Query("select r.id from Reservation r where r.user.id = :userId order by r.id")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    @Query("select r.user.id as userId, r.id as id from Reservation r where r.user.id in :userIds order by r.id")
+    List<ReservationIdView> findIdsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    default List<ReservationResponseDTO> findResponsesByDateAndUserId(LocalDate date, Long userId) {
+        return findResponsesCoveringNightByUserId(date, earliestCheckIn(date), userId);
+    }
+
+    @Query("select new org.example.hotelreservation.dto.ReservationResponseDTO(r.id, r.user.id, r.room.id, r.date, r.checkOut) from Reservation r where r.date > :earliest and r.date <= :date and r.checkOut > :date and r.user.id = :userId order by r.id")
+    List<ReservationResponseDTO> findResponsesCoveringNightByUserId(@Param("date") LocalDate date, @Param("earliest") LocalDate earliest, @Param("userId") Long userId);
+
+    /** Stays that have not ended by {@code from}. */
+    default List<BookedStayView> findBookedStaysFrom(LocalDate from) { return findBookedStaysEndingAfter(from, earliestCheckIn(from)); }
+
+    @Query("select r.room.id as roomId, r.date as checkIn, r.checkOut as checkOut from Reservation r where r.date > :earliest and r.checkOut > :from")
+    List<BookedStayView> findBookedStaysEndingAfter(@Param("from") LocalDate from, @Param("earliest") LocalDate earliest);
+
+    default List<BookedStayView> findBookedStaysByRoomFrom(Long roomId, LocalDate from) { return findBookedStaysByRoomEndingAfter(roomId, from, earliestCheckIn(from)); }
+
+    @Query("select r.room.id as roomId, r.date as checkIn, r.checkOut as checkOut from Reservation r where r.room.id = :roomId and r.date > :earliest and r.checkOut > :from")
+    List<BookedStayView> findBookedStaysByRoomEndingAfter(@Param("roomId") Long roomId, @Param("from") LocalDate from, @Param("earliest") LocalDate earliest);
+
+    /**
+     * No stay is longer than {@link Reservation#MAX_NIGHTS}, so one still running on {@code night} checked in after this day.
+     * Bounding the check-in date lets Postgres skip every older monthly partition.
+     */
+    static LocalDate earliestCheckIn(LocalDate night) { return night.minusDays(Reservation.MAX_NIGHTS); }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package org.example.hotelreservation.repository;
+
+import org.example.hotelreservation.entity.Role;
+
+public interface UserPrincipalView {
+    Long getId();
+    String getUsername();
+    String getPassword();
+    Role getRole();
+}
\ No newline at end of file
@@ -1,9 +1,34 @@
 package org.example.hotelreservation.repository;
 
+import org.example.hotelreservation.dto.UserSummaryDTO;
 import org.example.hotelreservation.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("select new org.example.hotelreservation.dto.UserSummaryDTO(u.id, u.username) from User u where u.id = :id")
+    Optional<UserSummaryDTO> findSummaryById(@Param("id") Long id);
+
+    @Query("select new org.example.hotelreservation.dto.UserSummaryDTO(u.id, u.username) from User u where u.username = :username")
+    Optional<UserSummaryDTO> findSummaryByUsername(@Param("username") String username);
+
+    @Query("select new org.example.hotelreservation.dto.UserSummaryDTO(u.id, u.username) from User u where u.id > :after order by u.id")
+    List<UserSummaryDTO> findSummariesAfter(@Param("after") Long after, Limit limit);
+
+    @Query("select u.id as id, u.username as username, u.password as password, u.role as role from User u where u.username = :username")
+    Optional<UserPrincipalView> findPrincipalByUsername(@Param("username") String username);
+
+    @Query("select u.id from User u where u.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package org.example.hotelreservation.security;
+
+import org.example.hotelreservation.entity.Role;
+import org.example.hotelreservation.repository.UserPrincipalView;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Principal built from the four columns authentication needs, so logging in never loads the
+ * {@code User} entity or its reservations. Like Spring Security's {@code User}, the password hash is
+ * dropped once authentication is done and never appears in {@link #toString()}.
+ */
+public final class AuthenticatedUser implements UserDetails, CredentialsContainer {
+    private final Long id;
+    private final String username;
+    private final Role role;
+    private String password;
+
+    public AuthenticatedUser(Long id, String username, String password, Role role) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.role = role;
+    }
+
+    public static AuthenticatedUser of(UserPrincipalView view) {
+        return new AuthenticatedUser(view.getId(), view.getUsername(), view.getPassword(), view.getRole());
+    }
+
+    public Long id() { return id; }
+
+    public String username() { return username; }
+
+    public Role role() { return role; }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() { return List.of(new SimpleGrantedAuthority("ROLE_" + role.name())); }
+
+    @Override
+    public String getPassword() { return password; }
+
+    @Override
+    public String getUsername() { return username; }
+
+    @Override
+    public void eraseCredentials() { password = null; }
+
+    @Override
+    public boolean equals(Object o) { return o instanceof AuthenticatedUser other && Objects.equals(id, other.id) && Objects.equals(username, other.username); }
+
+    @Override
+    public int hashCode() { return Objects.hash(id, username); }
+
+    @Override
+    public String toString() { return "AuthenticatedUser[id=" + id + ", username=" + username + ", password=[PROTECTED], role=" + role + "]"; }
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package org.example.hotelreservation.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.hotelreservation.event.UserChangedEvent;
+import org.example.hotelreservation.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers successful HTTP Basic logins for a short time so repeated requests skip the BCrypt check.
+ * Entries are keyed by an HMAC of the credentials under a per-boot random key, so neither the password nor
+ * a reusable hash of it is ever held in memory. Only successes are cached; a wrong password always goes
+ * through {@link DaoAuthenticationProvider}. Every check is timed as {@code authentication.duration}, tagged
+ * with whether it was answered from the cache and whether it succeeded. Users are looked up through
+ * {@link UserService} rather than a {@code UserDetailsService} bean.
+ */
+@Component
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+    private static final String HMAC = "HmacSHA256";
+
+    private final DaoAuthenticationProvider delegate = new DaoAuthenticationProvider();
+    private final Cache<String, Authentication> cache;
+    private final SecretKeySpec key;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Timer hits;
+    private final Timer misses;
+    private final Timer failures;
+
+    @Autowired
+    public CachingAuthenticationProvider(@Lazy UserService userService, PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                                         @Value("${security.auth-cache.ttl:5m}") Duration ttl,
+                                         @Value("${security.auth-cache.max-size:10000}") long maxSize) {
+        this(username -> userService.findPrincipalByUsername(username).orElseThrow(() -> new UsernameNotFoundException("User not found")),
+                passwordEncoder, meterRegistry, ttl, maxSize);
+    }
+
+    public CachingAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                                         Duration ttl, long maxSize) {
+        delegate.setUserDetailsService(userDetailsService);
+        delegate.setPasswordEncoder(passwordEncoder);
+        cache = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxSize).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "authentication");
+        hits = meterRegistry.timer("authentication.duration", "cache", "hit", "outcome", "success");
+        misses = meterRegistry.timer("authentication.duration", "cache", "miss", "outcome", "success");
+        failures = meterRegistry.timer("authentication.duration", "cache", "miss", "outcome", "failure");
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        key = new SecretKeySpec(secret, HMAC);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication.getCredentials() instanceof String password)) { return delegate.authenticate(authentication); }
+
+        long start = System.nanoTime();
+        String cacheKey = keyOf(authentication.getName(), password);
+        Authentication cached = cache.getIfPresent(cacheKey);
+        if (cached != null) {
+            hits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+
+        // a user change that lands while BCrypt runs must not let the old credentials back into the cache
+        long generation = invalidations.get();
+        Timer timer = failures;
+        try {
+            Authentication result = delegate.authenticate(authentication);
+            // drop the password and its hash before the result is kept
+            if (result instanceof CredentialsContainer container) { container.eraseCredentials(); }
+            if (result != null && generation == invalidations.get()) { cache.put(cacheKey, result); }
+            timer = misses;
+            return result;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) { return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication); }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidations.incrementAndGet();
+        cache.asMap().values().removeIf(a -> a.getPrincipal() instanceof AuthenticatedUser user && user.id().equals(event.userId()));
+    }
+
+    private String keyOf(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,229 @@
+package org.example.hotelreservation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.hotelreservation.dto.AvailabilityChangeDTO;
+import org.example.hotelreservation.event.AvailabilityChangedEvent;
+import org.example.hotelreservation.event.AvailabilityChangedEvent.Stay;
+import org.example.hotelreservation.service.RoomCatalog.CatalogRoom;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes room availability for a window of nights to subscribed clients over SSE. A subscriber first gets a
+ * {@code snapshot} of the booked nights from the {@link RoomAvailabilityIndex}, then {@code availability} events for
+ * every change the index applies after that: changes committed here and, through the reservation ledger, elsewhere. A
+ * wholesale reload of the index ends every stream, and clients reconnect for a fresh snapshot.
+ * Changes are queued per subscriber keyed by room and night, so while a slow client is still being written to, later
+ * changes to the same night replace the queued one instead of piling up; each subscriber is written to by at most
+ * one sender (a virtual thread) at a time. The registry is a concurrent set with a fixed number of slots, and each
+ * user may hold only a few of them.
+ */
+@Service
+public class AvailabilityStream {
+    public static final int MAX_DAYS = 31;
+
+    private final RoomCatalog roomCatalog;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final int maxSubscribers;
+    private final int maxPerUser;
+    private final Duration timeout;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger slots = new AtomicInteger();
+    private final Map<String, Integer> openByUser = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter sent;
+
+    public AvailabilityStream(RoomCatalog roomCatalog, RoomAvailabilityIndex availabilityIndex, MeterRegistry meterRegistry,
+                              @Value("${availability.stream.max-subscribers:1000}") int maxSubscribers,
+                              @Value("${availability.stream.max-per-user:5}") int maxPerUser,
+                              @Value("${availability.stream.timeout:30m}") Duration timeout) {
+        this.roomCatalog = roomCatalog;
+        this.availabilityIndex = availabilityIndex;
+        this.maxSubscribers = maxSubscribers;
+        this.maxPerUser = maxPerUser;
+        this.timeout = timeout;
+        this.sent = meterRegistry.counter("availability.stream.events");
+        Gauge.builder("availability.stream.subscribers", subscriptions, Set::size).register(meterRegistry);
+    }
+
+    private record Night(long roomId, LocalDate date) {}
+
+    /** Opens a stream for nights in {@code [from, to)} of one room, of the rooms of a standard, or of all rooms, held by {@code user}. */
+    public SseEmitter subscribe(LocalDate from, LocalDate to, String standard, Long roomId, String user) {
+        if (!to.isAfter(from)) { throw new RuntimeException("End date must be after start date."); }
+        if (from.isBefore(LocalDate.now())) { throw new RuntimeException("Availability can only be streamed from today on."); }
+        if (to.isAfter(from.plusDays(MAX_DAYS))) { throw new RuntimeException("Cannot stream more than " + MAX_DAYS + " days at once."); }
+        if (roomId != null && !roomCatalog.contains(roomId)) { throw new RuntimeException("Room not found: " + roomId); }
+
+        if (openByUser.merge(user, 1, Integer::sum) > maxPerUser) {
+            release(user);
+            throw new StreamLimitException();
+        }
+        int taken;
+        do {
+            taken = slots.get();
+            if (taken >= maxSubscribers) {
+                release(user);
+                throw new StreamCapacityException();
+            }
+        } while (!slots.compareAndSet(taken, taken + 1));
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscription subscription = new Subscription(from, to, standard, roomId, user, emitter);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        subscriptions.add(subscription);
+        senders.execute(subscription::start);
+        return emitter;
+    }
+
+    /** Published once the index holds the change, so a snapshot read from it in between cannot miss it. */
+    @EventListener
+    public void onAvailabilityChanged(AvailabilityChangedEvent event) {
+        if (subscriptions.isEmpty()) { return; }
+        if (event.isReload()) {
+            for (Subscription subscription : subscriptions) { subscription.end(); }
+            return;
+        }
+        Map<Night, Boolean> changes = new HashMap<>();
+        if (event.released() != null) { nights(event.released(), true, changes); }
+        if (event.booked() != null) { nights(event.booked(), false, changes); }
+        for (Subscription subscription : subscriptions) { subscription.offer(changes); }
+    }
+
+    /** Keeps idle connections open through proxies and notices clients that went away. */
+    @Scheduled(fixedDelayString = "${availability.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            subscription.heartbeatDue = true;
+            subscription.schedule();
+        }
+    }
+
+    private static void nights(Stay stay, boolean available, Map<Night, Boolean> changes) {
+        for (LocalDate day = stay.checkIn(); day.isBefore(stay.checkOut()); day = day.plusDays(1)) {
+            changes.put(new Night(stay.roomId(), day), available);
+        }
+    }
+
+    private void release(String user) { openByUser.computeIfPresent(user, (u, open) -> open > 1 ? open - 1 : null); }
+
+    private final class Subscription {
+        private final LocalDate from;
+        private final LocalDate to;
+        private final String standard;
+        private final Long roomId;
+        private final String user;
+        private final SseEmitter emitter;
+        private final Map<Night, Boolean> pending = new ConcurrentHashMap<>();
+        /** Set while a sender owns the emitter; starts set so no change is sent before the snapshot. */
+        private final AtomicBoolean draining = new AtomicBoolean(true);
+        private volatile boolean heartbeatDue;
+
+        Subscription(LocalDate from, LocalDate to, String standard, Long roomId, String user, SseEmitter emitter) {
+            this.from = from;
+            this.to = to;
+            this.standard = standard;
+            this.roomId = roomId;
+            this.user = user;
+            this.emitter = emitter;
+        }
+
+        boolean covers(long room) {
+            if (roomId != null) { return roomId == room; }
+            return standard == null || roomCatalog.find(room).map(r -> r.standard().equals(standard)).orElse(false);
+        }
+
+        void offer(Map<Night, Boolean> changes) {
+            boolean queued = false;
+            for (Map.Entry<Night, Boolean> change : changes.entrySet()) {
+                Night night = change.getKey();
+                if (night.date().isBefore(from) || !night.date().isBefore(to) || !covers(night.roomId())) { continue; }
+                pending.put(night, change.getValue());
+                queued = true;
+            }
+            if (queued) { schedule(); }
+        }
+
+        void schedule() {
+            if (draining.compareAndSet(false, true)) { senders.execute(this::drain); }
+        }
+
+        /** Sends the booked nights of the window, then whatever changed in the meantime. */
+        void start() {
+            List<CatalogRoom> rooms = roomId != null ? roomCatalog.find(roomId).stream().toList() : roomCatalog.cheapestFirst(standard, null);
+            List<AvailabilityChangeDTO> booked = new ArrayList<>();
+            for (CatalogRoom room : rooms) {
+                for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+                    if (availabilityIndex.isBooked(room.id(), day)) { booked.add(new AvailabilityChangeDTO(room.id(), day, false)); }
+                }
+            }
+            try {
+                emitter.send(SseEmitter.event().name("snapshot").data(booked));
+                sent.increment();
+            } catch (IOException | IllegalStateException e) {
+                end();
+                return;
+            }
+            drain();
+        }
+
+        void drain() {
+            try {
+                while (true) {
+                    List<AvailabilityChangeDTO> batch = take();
+                    if (!batch.isEmpty()) {
+                        emitter.send(SseEmitter.event().name("availability").data(batch));
+                        sent.increment();
+                    } else if (heartbeatDue) {
+                        heartbeatDue = false;
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } else {
+                        draining.set(false);
+                        // a change queued after take() but before the flag was cleared found the flag still set
+                        if ((pending.isEmpty() && !heartbeatDue) || !draining.compareAndSet(false, true)) { return; }
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                end();
+            }
+        }
+
+        private List<AvailabilityChangeDTO> take() {
+            List<AvailabilityChangeDTO> batch = new ArrayList<>();
+            for (Night night : pending.keySet()) {
+                Boolean available = pending.remove(night);
+                if (available != null) { batch.add(new AvailabilityChangeDTO(night.roomId(), night.date(), available)); }
+            }
+            return batch;
+        }
+
+        void end() {
+            close();
+            try { emitter.complete(); } catch (RuntimeException ignored) { /* the connection is already gone */ }
+        }
+
+        void close() {
+            if (subscriptions.remove(this)) {
+                slots.decrementAndGet();
+                release(user);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package org.example.hotelreservation.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** The requested nights overlap an existing booking of the room. */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BookingConflictException extends RuntimeException {
+    public BookingConflictException() {
+        super("Room is already booked on this date.");
+    }
+}
\ No newline at end of file
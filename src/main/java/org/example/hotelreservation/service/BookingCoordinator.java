@@ -0,0 +1,113 @@
+package org.example.hotelreservation.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serialises bookings that touch the same (room, night) pairs through a fixed array of lock stripes,
+ * so bookings for different rooms run in parallel while a check-then-insert on one room cannot race.
+ * Stripes are always taken in ascending order; a stripe that stays busy past the timeout makes the
+ * whole attempt back off and retry, up to the configured number of attempts.
+ */
+@Component
+public class BookingCoordinator {
+    private final ReentrantLock[] stripes;
+    private final long lockTimeoutMillis;
+    private final int maxAttempts;
+
+    public BookingCoordinator(@Value("${booking.lock.stripes:1024}") int stripeCount,
+                              @Value("${booking.lock.timeout-ms:200}") long lockTimeoutMillis,
+                              @Value("${booking.lock.max-attempts:3}") int maxAttempts) {
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) { stripes[i] = new ReentrantLock(); }
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Runs {@code work} while holding the stripes of every night in {@code [checkIn, checkOut)} of the room.
+     * Inside a transaction the stripes are released only once it completes, after the after-commit
+     * listeners have updated the availability index.
+     */
+    public <T> T withNightLocks(Long roomId, LocalDate checkIn, LocalDate checkOut, Supplier<T> work) {
+        return withNightLocks(List.of(new Stay(roomId, checkIn, checkOut)), work);
+    }
+
+    /** Same as the single-stay variant, taking the union of the stripes of all {@code stays} at once. */
+    public <T> T withNightLocks(Collection<Stay> stays, Supplier<T> work) {
+        TreeSet<Integer> needed = new TreeSet<>();
+        for (Stay stay : stays) {
+            for (long day = stay.checkIn().toEpochDay(); day < stay.checkOut().toEpochDay(); day++) { needed.add(stripeOf(stay.roomId(), day)); }
+        }
+
+        List<ReentrantLock> held = acquire(needed);
+        boolean deferred = false;
+        try {
+            T result = work.get();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) { release(held); }
+                });
+                deferred = true;
+            }
+            return result;
+        } finally {
+            if (!deferred) { release(held); }
+        }
+    }
+
+    public record Stay(Long roomId, LocalDate checkIn, LocalDate checkOut) {}
+
+    private int stripeOf(Long roomId, long day) {
+        int h = 31 * Long.hashCode(roomId) + Long.hashCode(day);
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    private List<ReentrantLock> acquire(TreeSet<Integer> needed) {
+        for (int attempt = 1; ; attempt++) {
+            List<ReentrantLock> held = new ArrayList<>(needed.size());
+            try {
+                for (int stripe : needed) {
+                    ReentrantLock lock = stripes[stripe];
+                    if (!lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) { break; }
+                    held.add(lock);
+                }
+            } catch (InterruptedException e) {
+                release(held);
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for room lock", e);
+            }
+            if (held.size() == needed.size()) { return held; }
+
+            release(held);
+            if (attempt >= maxAttempts) { throw new RuntimeException("Room is busy, please try again."); }
+            backOff(attempt);
+        }
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, lockTimeoutMillis * attempt + 2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for room lock", e);
+        }
+    }
+
+    private static void release(List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) { held.get(i).unlock(); }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package org.example.hotelreservation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers for the booking path: {@code booking.requests} for a whole create/update, tagged with its outcome, and
+ * {@code booking.phase} for the conflict check, the user/room lookup and the insert inside it. The time between
+ * the two is spent waiting for the night locks. Percentile histograms are switched on in application.properties.
+ */
+@Component
+public class BookingMetrics {
+    public static final String CONFLICT_CHECK = "conflict_check";
+    public static final String LOOKUP = "lookup";
+    public static final String INSERT = "insert";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> phases;
+    private final Map<String, Counter> conflicts;
+
+    public BookingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.phases = Map.of(
+                CONFLICT_CHECK, registry.timer("booking.phase", "phase", CONFLICT_CHECK),
+                LOOKUP, registry.timer("booking.phase", "phase", LOOKUP),
+                INSERT, registry.timer("booking.phase", "phase", INSERT));
+        this.conflicts = Map.of(
+                "create", registry.counter("booking.conflicts", "operation", "create"),
+                "update", registry.counter("booking.conflicts", "operation", "update"));
+    }
+
+    /** Times a whole booking {@code operation} ("create" or "update"), counting a {@link BookingConflictException} as a conflict. */
+    public <T> T booking(String operation, Supplier<T> work) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = work.get();
+            outcome = "booked";
+            return result;
+        } catch (BookingConflictException e) {
+            outcome = "conflict";
+            conflicts.get(operation).increment();
+            throw e;
+        } finally {
+            registry.timer("booking.requests", "operation", operation, "outcome", outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public <T> T phase(String phase, Supplier<T> work) { return phases.get(phase).record(work); }
+
+    public void phase(String phase, Runnable work) { phases.get(phase).record(work); }
+}
\ No newline at end of file
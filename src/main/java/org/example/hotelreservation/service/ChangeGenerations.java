@@ -0,0 +1,29 @@
+package org.example.hotelreservation.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shared change counters in {@code change_generations} (see migrations V15 and V16). Every instance polls them, so state it
+ * keeps in memory follows changes committed elsewhere.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeGenerations {
+    /** Advanced by a trigger on every write to {@code rooms}. */
+    public static final String ROOMS = "rooms";
+    /** Advanced by wholesale reservation changes, such as archiving months or a rebuild from the ledger. */
+    public static final String RESERVATIONS = "reservations";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long current(String scope) {
+        return jdbcTemplate.queryForObject("SELECT generation FROM change_generations WHERE scope = ?", Long.class, scope);
+    }
+
+    /** Counts a change in the calling transaction, so other instances see it exactly when it commits. */
+    public void advance(String scope) {
+        jdbcTemplate.update("UPDATE change_generations SET generation = generation + 1 WHERE scope = ?", scope);
+    }
+}
\ No newline at end of file
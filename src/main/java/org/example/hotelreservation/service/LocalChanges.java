@@ -0,0 +1,29 @@
+package org.example.hotelreservation.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reservation changes this instance has already applied to some in-memory state, so the poll that follows the ledger
+ * for the same state can skip their events. Noted before commit, so a poll reading the event right after the commit
+ * already knows about it.
+ */
+final class LocalChanges {
+    /** Ledger events still to come, by reservation id. */
+    private final Map<Long, Integer> pending = new ConcurrentHashMap<>();
+
+    void note(long reservationId) { pending.merge(reservationId, 1, Integer::sum); }
+
+    /** Whether a change to the reservation was applied here and not yet matched with its ledger event; consumes it. */
+    boolean consume(long reservationId) {
+        boolean[] applied = {false};
+        pending.computeIfPresent(reservationId, (id, count) -> {
+            applied[0] = true;
+            return count == 1 ? null : count - 1;
+        });
+        return applied[0];
+    }
+
+    /** Forgets every noted change, after which their events are applied again when polled. */
+    void clear() { pending.clear(); }
+}
\ No newline at end of file
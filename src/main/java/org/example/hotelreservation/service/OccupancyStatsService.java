@@ -0,0 +1,138 @@
+package org.example.hotelreservation.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.hotelreservation.dto.OccupancyDTO;
+import org.example.hotelreservation.event.ReservationChangedEvent;
+import org.example.hotelreservation.event.ReservationChangedEvent.Booking;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Booked rooms and revenue per night and room standard, stored in {@code occupancy_daily} and updated from every
+ * reservation change, so reads cost one row per night and standard however many reservations there are.
+ * The changes of one transaction are summed and written just before it commits, in (night, standard) order, so
+ * concurrent bookings touch the shared rows in the same order and hold their locks only while committing.
+ * <p>
+ * Nights count under the room's current standard and price. A room change moves its nights in the database
+ * (migration V17). A booking change reads the room's row with a share lock, so it either commits before a room
+ * change moves its nights or counts them at the new values.
+ */
+@Service
+@RequiredArgsConstructor
+public class OccupancyStatsService {
+    public static final int MAX_DAYS = 366;
+
+    private static final String UPSERT = """
+            INSERT INTO occupancy_daily (day, standard, booked_rooms, revenue) VALUES (?, ?, ?, ?)
+            ON CONFLICT (day, standard) DO UPDATE SET booked_rooms = occupancy_daily.booked_rooms + EXCLUDED.booked_rooms,
+                                                      revenue = occupancy_daily.revenue + EXCLUDED.revenue""";
+    private static final String RATE = "SELECT standard, price FROM rooms WHERE id = ? FOR SHARE";
+    private static final Object PENDING = new Object();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RoomCatalog roomCatalog;
+
+    private record Key(LocalDate day, String standard) {}
+
+    /** What a night in a room counts as. */
+    private record Rate(String standard, BigDecimal price) {}
+
+    /** A transaction's summed deltas, and the rates of the rooms it has locked so far. */
+    private record Pending(Map<Key, Delta> deltas, Map<Long, Optional<Rate>> rates) {
+        Pending() { this(new TreeMap<>(byDayAndStandard()), new HashMap<>()); }
+    }
+
+    private record Delta(int rooms, BigDecimal revenue) {
+        Delta plus(Delta other) { return new Delta(rooms + other.rooms, revenue.add(other.revenue)); }
+    }
+
+    /** Nights in {@code [from, to)} for every standard, including nights and standards with nothing booked. */
+    public List<OccupancyDTO> getOccupancy(LocalDate from, LocalDate to) {
+        if (!to.isAfter(from)) { throw new RuntimeException("End date must be after start date."); }
+        if (to.isAfter(from.plusDays(MAX_DAYS))) { throw new RuntimeException("Cannot report on more than " + MAX_DAYS + " days at once."); }
+
+        Map<Key, Delta> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT day, standard, booked_rooms, revenue FROM occupancy_daily WHERE day >= ? AND day < ?",
+                rs -> { stored.put(new Key(rs.getObject(1, LocalDate.class), rs.getString(2)), new Delta(rs.getInt(3), rs.getBigDecimal(4))); },
+                from, to);
+
+        SortedSet<String> standards = new TreeSet<>(roomCatalog.standards());
+        stored.keySet().forEach(key -> standards.add(key.standard()));
+
+        List<OccupancyDTO> result = new ArrayList<>();
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            for (String standard : standards) {
+                Delta booked = stored.getOrDefault(new Key(day, standard), new Delta(0, BigDecimal.ZERO));
+                int rooms = roomCatalog.cheapestFirst(standard, null).size();
+                double occupancy = rooms == 0 ? 0 : (double) booked.rooms() / rooms;
+                result.add(new OccupancyDTO(day, standard, rooms, booked.rooms(), occupancy, booked.revenue()));
+            }
+        }
+        return result;
+    }
+
+    /** Recomputes every night from the reservations and current rooms; returns the number of rows written. */
+    public int rebuild() {
+        return jdbcTemplate.queryForObject("SELECT occupancy_daily_rebuild()", Integer.class);
+    }
+
+    @EventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        Pending pending = pending();
+        if (event.previous() != null) { add(pending, event.previous(), -1); }
+        if (event.current() != null) { add(pending, event.current(), 1); }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) { apply(pending.deltas()); }
+    }
+
+    /** The deltas collected so far in the current transaction, registering the write before commit on first use. */
+    private Pending pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) { return new Pending(); }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(PENDING);
+        if (pending == null) {
+            Pending created = new Pending();
+            TransactionSynchronizationManager.bindResource(PENDING, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) { apply(created.deltas()); }
+
+                @Override
+                public void afterCompletion(int status) { TransactionSynchronizationManager.unbindResourceIfPossible(PENDING); }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    private void add(Pending pending, Booking booking, int sign) {
+        Optional<Rate> rate = pending.rates().computeIfAbsent(booking.roomId(), this::lockRate);
+        if (rate.isEmpty()) { return; }
+        Delta night = new Delta(sign, rate.get().price().multiply(BigDecimal.valueOf(sign)));
+        for (LocalDate day = booking.checkIn(); day.isBefore(booking.checkOut()); day = day.plusDays(1)) {
+            pending.deltas().merge(new Key(day, rate.get().standard()), night, Delta::plus);
+        }
+    }
+
+    private Optional<Rate> lockRate(Long roomId) {
+        return jdbcTemplate.query(RATE, (rs, row) -> new Rate(rs.getString(1), BigDecimal.valueOf(rs.getDouble(2))), roomId).stream().findFirst();
+    }
+
+    private void apply(Map<Key, Delta> deltas) {
+        List<Map.Entry<Key, Delta>> changed = deltas.entrySet().stream().filter(e -> e.getValue().rooms() != 0 || e.getValue().revenue().signum() != 0).toList();
+        if (changed.isEmpty()) { return; }
+        jdbcTemplate.batchUpdate(UPSERT, changed, changed.size(), (ps, e) -> {
+            ps.setObject(1, e.getKey().day());
+            ps.setString(2, e.getKey().standard());
+            ps.setInt(3, e.getValue().rooms());
+            ps.setBigDecimal(4, e.getValue().revenue());
+        });
+    }
+
+    private static Comparator<Key> byDayAndStandard() { return Comparator.comparing(Key::day).thenComparing(Key::standard); }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package org.example.hotelreservation.service;
+
+import org.example.hotelreservation.dto.ReservationEventDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the reservation ledger as a change feed. Events are read in (xid, seq) order and only once their
+ * transaction is older than every transaction still running, so nothing can later appear before a cursor that
+ * was already handed out. Long polls are parked and checked again on a short fixed delay, with one read per distinct cursor.
+ */
+@Service
+public class ReservationChangeFeed {
+    private static final String QUERY = """
+            SELECT xid::text, seq, reservation_id, type, user_id, room_id, check_in, check_out, recorded_at
+            FROM reservation_events
+            WHERE (xid, seq) > (?::xid8, ?) AND xid < pg_snapshot_xmin(pg_current_snapshot())
+            ORDER BY xid, seq
+            LIMIT ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    public ReservationChangeFeed(JdbcTemplate jdbcTemplate) { this.jdbcTemplate = jdbcTemplate; }
+
+    /** Position after the last event a client has seen; opaque to clients. */
+    public record Cursor(String xid, long seq) {
+        private static final String PREFIX = "changes:";
+        public static final Cursor START = new Cursor("0", 0);
+
+        public String encode() { return Base64.getUrlEncoder().withoutPadding().encodeToString((PREFIX + xid + ":" + seq).getBytes(StandardCharsets.UTF_8)); }
+
+        /** Throws {@link IllegalArgumentException} for anything {@link #encode()} did not produce. */
+        public static Cursor parse(String cursor) {
+            if (cursor == null || cursor.isBlank()) { return START; }
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.startsWith(PREFIX) ? decoded.substring(PREFIX.length()).split(":") : new String[0];
+            if (parts.length != 2) { throw new IllegalArgumentException(decoded); }
+            return new Cursor(String.valueOf(Long.parseUnsignedLong(parts[0])), Long.parseLong(parts[1]));
+        }
+    }
+
+    public record Changes(List<ReservationEventDTO> events, Cursor next) {}
+
+    private record Waiter(Cursor since, int limit, CompletableFuture<Changes> result) {}
+
+    private record Row(String xid, ReservationEventDTO event) {}
+
+    /** The cursor after the last event served so far, for readers that only want the changes from now on. */
+    public Cursor head() {
+        List<Cursor> last = jdbcTemplate.query("""
+                SELECT xid::text, seq FROM reservation_events
+                WHERE xid < pg_snapshot_xmin(pg_current_snapshot())
+                ORDER BY xid DESC, seq DESC
+                LIMIT 1""", (rs, rowNum) -> new Cursor(rs.getString(1), rs.getLong(2)));
+        return last.isEmpty() ? Cursor.START : last.getFirst();
+    }
+
+    /** Up to {@code limit} events after {@code since}; {@code next} is where the following read starts. */
+    public Changes read(Cursor since, int limit) { return changes(since, fetch(since, limit), limit); }
+
+    private List<Row> fetch(Cursor since, int limit) {
+        return jdbcTemplate.query(QUERY, (rs, rowNum) -> new Row(rs.getString(1),
+                new ReservationEventDTO(rs.getLong(2), rs.getLong(3), rs.getString(4), rs.getLong(5), rs.getLong(6),
+                        rs.getObject(7, LocalDate.class), rs.getObject(8, LocalDate.class), rs.getObject(9, OffsetDateTime.class))),
+                since.xid(), since.seq(), limit);
+    }
+
+    /** The first {@code limit} of {@code rows} read after {@code since}, with the cursor after the last one. */
+    private static Changes changes(Cursor since, List<Row> rows, int limit) {
+        List<Row> served = rows.subList(0, Math.min(limit, rows.size()));
+        if (served.isEmpty()) { return new Changes(List.of(), since); }
+        Row last = served.getLast();
+        return new Changes(served.stream().map(Row::event).toList(), new Cursor(last.xid(), last.event().getSeq()));
+    }
+
+    /** Like {@link #read}, but when nothing is there yet waits up to {@code wait} for changes before answering empty. */
+    public CompletableFuture<Changes> await(Cursor since, int limit, Duration wait) {
+        Changes now = read(since, limit);
+        if (!now.events().isEmpty() || wait.isZero()) { return CompletableFuture.completedFuture(now); }
+        CompletableFuture<Changes> result = new CompletableFuture<Changes>()
+                .completeOnTimeout(now, wait.toMillis(), TimeUnit.MILLISECONDS);
+        waiters.add(new Waiter(since, limit, result));
+        return result;
+    }
+
+    /** Waiters parked on the same cursor share one read, sized for the largest of them. */
+    @Scheduled(fixedDelayString = "${reservation.changes.poll-interval:250}")
+    public void wakeWaiters() {
+        waiters.removeIf(waiter -> waiter.result().isDone());
+        Map<Cursor, List<Waiter>> byCursor = waiters.stream().collect(Collectors.groupingBy(Waiter::since));
+        byCursor.forEach((since, sharing) -> {
+            List<Row> rows = fetch(since, sharing.stream().mapToInt(Waiter::limit).max().orElseThrow());
+            if (rows.isEmpty()) { return; }
+            for (Waiter waiter : sharing) {
+                waiter.result().complete(changes(since, rows, waiter.limit()));
+                waiters.remove(waiter);
+            }
+        });
+    }
+}
\ No newline at end of file
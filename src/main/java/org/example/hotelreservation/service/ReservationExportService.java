@@ -0,0 +1,50 @@
+package org.example.hotelreservation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.example.hotelreservation.dto.ReservationResponseDTO;
+import org.example.hotelreservation.repository.ReservationRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Writes every reservation to an output stream as NDJSON or CSV. Rows come from a forward-only cursor as DTO
+ * projections, so nothing is held in the persistence context and memory stays flat whatever the table size.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservationExportService {
+    public enum Format { NDJSON, CSV }
+
+    private static final int FLUSH_EVERY = 500;
+    private static final String CSV_HEADER = "id,userId,roomId,date,checkOut";
+
+    private final ReservationRepository reservationRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void export(Format format, OutputStream out) throws IOException {
+        ObjectWriter json = objectMapper.writerFor(ReservationResponseDTO.class);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) { writer.write(CSV_HEADER + "\n"); }
+
+        try (Stream<ReservationResponseDTO> rows = reservationRepository.streamAllForExport()) {
+            int written = 0;
+            for (ReservationResponseDTO row : (Iterable<ReservationResponseDTO>) rows::iterator) {
+                writer.write(format == Format.CSV ? toCsv(row) : json.writeValueAsString(row));
+                writer.write('\n');
+                if (++written % FLUSH_EVERY == 0) { writer.flush(); }
+            }
+        }
+        writer.flush();
+    }
+
+    private static String toCsv(ReservationResponseDTO row) {
+        return row.getId() + "," + row.getUserId() + "," + row.getRoomId() + "," + row.getDate() + "," + row.getCheckOut();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,178 @@
+package org.example.hotelreservation.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.example.hotelreservation.dto.BulkReservationResultDTO;
+import org.example.hotelreservation.dto.BulkReservationRowDTO;
+import org.example.hotelreservation.dto.ReservationRequestDTO;
+import org.example.hotelreservation.entity.Reservation;
+import org.example.hotelreservation.event.ReservationChangedEvent;
+import org.example.hotelreservation.repository.ReservationRepository;
+import org.example.hotelreservation.repository.RoomRepository;
+import org.example.hotelreservation.repository.UserRepository;
+import org.example.hotelreservation.service.BookingCoordinator.Stay;
+import org.example.hotelreservation.util.ReservationMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Imports a stream of reservations (JSON array or NDJSON) in chunks. Each chunk is checked in memory against
+ * the availability index and against the rows accepted earlier in the same chunk, then written in one
+ * transaction so Hibernate can send the inserts as JDBC batches.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservationImportService {
+    public static final String CREATED = "CREATED";
+    public static final String CONFLICT = "CONFLICT";
+    public static final String INVALID = "INVALID";
+    public static final String FAILED = "FAILED";
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final ReservationRepository reservationRepository;
+    private final UserRepository userRepository;
+    private final RoomRepository roomRepository;
+    private final RoomCatalog roomCatalog;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final BookingCoordinator bookingCoordinator;
+    private final ReservationService reservationService;
+    private final ReservationLedger ledger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    private record Row(int index, ReservationRequestDTO dto) {
+        LocalDate checkOut() { return ReservationMapper.checkOutOf(dto); }
+    }
+
+    public BulkReservationResultDTO importReservations(InputStream body) throws IOException {
+        BulkReservationResultDTO result = new BulkReservationResultDTO();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        int index = 0;
+
+        try (MappingIterator<ReservationRequestDTO> rows = objectMapper.readerFor(ReservationRequestDTO.class).readValues(body)) {
+            while (rows.hasNextValue()) {
+                try {
+                    chunk.add(new Row(index, rows.nextValue()));
+                } catch (JsonParseException e) {
+                    report(result, index, INVALID, null, "Malformed input, import stopped: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    report(result, index, INVALID, null, e.getOriginalMessage());
+                }
+                index++;
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonParseException e) {
+            report(result, index, INVALID, null, "Malformed input, import stopped: " + e.getOriginalMessage());
+        }
+        if (!chunk.isEmpty()) { importChunk(chunk, result); }
+
+        result.getRows().sort(Comparator.comparingInt(BulkReservationRowDTO::getIndex));
+        return result;
+    }
+
+    private void importChunk(List<Row> chunk, BulkReservationResultDTO result) {
+        Set<Long> userIds = chunk.stream().map(row -> row.dto().getUserId()).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> existingUsers = userIds.isEmpty() ? Set.of() : userRepository.findExistingIds(userIds);
+
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String problem = validate(row, existingUsers);
+            if (problem != null) { report(result, row.index(), INVALID, null, problem); }
+            else { valid.add(row); }
+        }
+        if (valid.isEmpty()) { return; }
+
+        List<Stay> stays = valid.stream().map(row -> new Stay(row.dto().getRoomId(), row.dto().getDate(), row.checkOut())).toList();
+        try {
+            List<BulkReservationRowDTO> outcomes = bookingCoordinator.withNightLocks(stays, () -> transactionTemplate.execute(status -> insert(valid)));
+            outcomes.forEach(outcome -> report(result, outcome));
+        } catch (DataIntegrityViolationException e) {
+            valid.forEach(row -> importOne(row, result));
+        }
+    }
+
+    private String validate(Row row, Set<Long> existingUsers) {
+        Set<ConstraintViolation<ReservationRequestDTO>> violations = validator.validate(row.dto());
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        if (!row.checkOut().isAfter(row.dto().getDate())) { return "Check-out date must be after check-in date."; }
+        if (row.checkOut().isAfter(row.dto().getDate().plusDays(Reservation.MAX_NIGHTS))) { return "A stay cannot be longer than " + Reservation.MAX_NIGHTS + " nights."; }
+        if (!existingUsers.contains(row.dto().getUserId())) { return "User not found: " + row.dto().getUserId(); }
+        if (!roomCatalog.contains(row.dto().getRoomId())) { return "Room not found: " + row.dto().getRoomId(); }
+        return null;
+    }
+
+    private List<BulkReservationRowDTO> insert(List<Row> rows) {
+        Map<Long, RoomOccupancy> accepted = new HashMap<>();
+        List<BulkReservationRowDTO> outcomes = new ArrayList<>(rows.size());
+        List<Reservation> batch = new ArrayList<>(rows.size());
+        List<Row> batchRows = new ArrayList<>(rows.size());
+
+        for (Row row : rows) {
+            ReservationRequestDTO dto = row.dto();
+            long from = dto.getDate().toEpochDay();
+            long to = row.checkOut().toEpochDay();
+            RoomOccupancy inChunk = accepted.computeIfAbsent(dto.getRoomId(), id -> new RoomOccupancy());
+            if (!availabilityIndex.isFree(dto.getRoomId(), dto.getDate(), row.checkOut()) || !inChunk.isFree(from, to)) {
+                outcomes.add(new BulkReservationRowDTO(row.index(), CONFLICT, null, "Room is already booked on this date."));
+                continue;
+            }
+            inChunk.book(from, to);
+            batch.add(ReservationMapper.toEntity(dto, userRepository.getReferenceById(dto.getUserId()), roomRepository.getReferenceById(dto.getRoomId())));
+            batchRows.add(row);
+        }
+
+        List<Reservation> saved = reservationRepository.saveAll(batch);
+        reservationRepository.flush();
+        List<ReservationChangedEvent> events = saved.stream().map(ReservationChangedEvent::created).toList();
+        ledger.appendAll(events);
+        for (int i = 0; i < saved.size(); i++) {
+            eventPublisher.publishEvent(events.get(i));
+            outcomes.add(new BulkReservationRowDTO(batchRows.get(i).index(), CREATED, saved.get(i).getId(), null));
+        }
+        return outcomes;
+    }
+
+    /** Fallback when a chunk was rejected by the database: book its rows one by one to find the offending ones. */
+    private void importOne(Row row, BulkReservationResultDTO result) {
+        try {
+            report(result, row.index(), CREATED, reservationService.createReservation(row.dto()).getId(), null);
+        } catch (BookingConflictException e) {
+            report(result, row.index(), CONFLICT, null, e.getMessage());
+        } catch (RuntimeException e) {
+            // lock timeouts, rows that went stale since validation and database errors are not conflicts
+            report(result, row.index(), FAILED, null, e.getMessage());
+        }
+    }
+
+    private static void report(BulkReservationResultDTO result, int index, String status, Long reservationId, String message) {
+        report(result, new BulkReservationRowDTO(index, status, reservationId, message));
+    }
+
+    private static void report(BulkReservationResultDTO result, BulkReservationRowDTO row) {
+        if (CREATED.equals(row.getStatus())) { result.setCreated(result.getCreated() + 1); }
+        else { result.setRejected(result.getRejected() + 1); }
+        result.getRows().add(row);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package org.example.hotelreservation.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.hotelreservation.dto.ReservationEventDTO;
+import org.example.hotelreservation.event.ReservationChangedEvent;
+import org.example.hotelreservation.event.ReservationChangedEvent.Booking;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The append-only reservation event log ({@code reservation_events}). Booking changes are appended in the
+ * transaction that applies them to {@code reservations}, after the row was written, so changes to one
+ * reservation are appended in the order their row locks were taken.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservationLedger {
+    private static final String APPEND = "INSERT INTO reservation_events (reservation_id, type, user_id, room_id, check_in, check_out) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String COLUMNS = "seq, reservation_id, type, user_id, room_id, check_in, check_out, recorded_at";
+
+    private static final RowMapper<ReservationEventDTO> EVENT = (rs, row) -> new ReservationEventDTO(rs.getLong(1), rs.getLong(2), rs.getString(3),
+            rs.getLong(4), rs.getLong(5), rs.getObject(6, LocalDate.class), rs.getObject(7, LocalDate.class), rs.getObject(8, OffsetDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(ReservationChangedEvent event) { appendAll(List.of(event)); }
+
+    /** Appends the changes as one JDBC batch, in list order. */
+    public void appendAll(List<ReservationChangedEvent> events) {
+        if (events.isEmpty()) { return; }
+        jdbcTemplate.batchUpdate(APPEND, events, events.size(), (ps, event) -> {
+            Booking stay = event.current() != null ? event.current() : event.previous();
+            ps.setLong(1, event.reservationId());
+            ps.setString(2, event.type());
+            ps.setLong(3, stay.userId());
+            ps.setLong(4, stay.roomId());
+            ps.setObject(5, stay.checkIn());
+            ps.setObject(6, stay.checkOut());
+        });
+    }
+
+    public List<ReservationEventDTO> history(Long reservationId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM reservation_events WHERE reservation_id = ? ORDER BY seq", EVENT, reservationId);
+    }
+
+    /** The reservation's event before event {@code seq}, i.e. its stay and holder until then, or null when that event created it. */
+    public ReservationEventDTO eventBefore(long reservationId, long seq) {
+        List<ReservationEventDTO> events = jdbcTemplate.query("SELECT " + COLUMNS + " FROM reservation_events WHERE reservation_id = ? AND seq < ? ORDER BY seq DESC LIMIT 1",
+                EVENT, reservationId, seq);
+        return events.isEmpty() ? null : events.getFirst();
+    }
+
+    /**
+     * Streams the events after {@code afterSeq} up to and including {@code toSeq} that were recorded no later than {@code at} (when given), in order.
+     * Only events of reservations with ids after {@code afterId} up to and including {@code toId} are read.
+     */
+    public void replay(long afterSeq, long toSeq, OffsetDateTime at, long afterId, long toId, Consumer<ReservationEventDTO> consumer) {
+        RowCallbackHandler handler = rs -> consumer.accept(EVENT.mapRow(rs, 0));
+        if (at == null) {
+            jdbcTemplate.query("SELECT " + COLUMNS + " FROM reservation_events WHERE seq > ? AND seq <= ? AND reservation_id > ? AND reservation_id <= ? ORDER BY seq",
+                    handler, afterSeq, toSeq, afterId, toId);
+        } else {
+            jdbcTemplate.query("SELECT " + COLUMNS + " FROM reservation_events WHERE seq > ? AND seq <= ? AND recorded_at <= ? AND reservation_id > ? AND reservation_id <= ? ORDER BY seq",
+                    handler, afterSeq, toSeq, at, afterId, toId);
+        }
+    }
+
+    /**
+     * The highest sequence number up to which every event is committed. Waits for transactions that are appending
+     * at the moment; later appends get higher numbers.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long committedHead() { return lockHead(); }
+
+    /** Like {@link #committedHead()}, but keeps appends blocked until the current transaction ends. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long lockHead() {
+        jdbcTemplate.execute("LOCK TABLE reservation_events IN SHARE MODE");
+        return jdbcTemplate.queryForObject("SELECT coalesce(max(seq), 0) FROM reservation_events", Long.class);
+    }
+}
\ No newline at end of file
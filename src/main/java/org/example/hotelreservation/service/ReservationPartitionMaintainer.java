@@ -0,0 +1,52 @@
+package org.example.hotelreservation.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps the monthly partitions of {@code reservations} ahead of bookings and moves months that ended before the
+ * archive cutoff into {@code reservations_archive}. The DDL itself lives in database functions (see migration V10);
+ * this runs them at startup and then on the configured schedule. Runs are serialised across instances by a
+ * transaction-scoped advisory lock, since the functions check for a partition before creating it.
+ */
+@Component
+public class ReservationPartitionMaintainer {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReservationVersions reservationVersions;
+    private final int monthsAhead;
+    private final int archiveAfterMonths;
+
+    public ReservationPartitionMaintainer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ReservationVersions reservationVersions,
+                                          @Value("${reservation.partitions.months-ahead:12}") int monthsAhead,
+                                          @Value("${reservation.archive.after-months:24}") int archiveAfterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.reservationVersions = reservationVersions;
+        this.monthsAhead = monthsAhead;
+        this.archiveAfterMonths = archiveAfterMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() { maintain(); }
+
+    @Scheduled(cron = "${reservation.partitions.cron:0 30 3 * * *}")
+    public void maintain() {
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        transactionTemplate.executeWithoutResult(status -> {
+            // released at commit; another instance waits here and then finds the partitions already in place
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(hashtext('reservations_partition_maintenance'))");
+            jdbcTemplate.queryForObject("SELECT reservations_ensure_partitions(?, ?)", Integer.class, thisMonth, thisMonth.plusMonths(monthsAhead));
+            Integer archived = jdbcTemplate.queryForObject("SELECT reservations_archive_before(?)", Integer.class, thisMonth.minusMonths(archiveAfterMonths));
+            // archived stays are no longer listed
+            if (archived != null && archived > 0) { reservationVersions.changedAll(); }
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+package org.example.hotelreservation.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.hotelreservation.dto.PageDTO;
+import org.example.hotelreservation.dto.ReservationEventDTO;
+import org.example.hotelreservation.dto.ReservationResponseDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * Derives reservation state from the ledger: the stays that existed at a point in time, periodic snapshots so a
+ * replay only covers the events since the latest one, and a rebuild of the {@code reservations} table and the
+ * availability index. Booking writes keep {@code reservations} in step themselves; a rebuild is for reconciliation.
+ */
+@Slf4j
+@Service
+public class ReservationProjector {
+    private final ReservationLedger ledger;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final ReservationVersions reservationVersions;
+    private final int snapshotsKept;
+
+    public ReservationProjector(ReservationLedger ledger, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                RoomAvailabilityIndex availabilityIndex, ReservationVersions reservationVersions,
+                                @Value("${reservation.ledger.snapshots-kept:7}") int snapshotsKept) {
+        this.ledger = ledger;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.availabilityIndex = availabilityIndex;
+        this.reservationVersions = reservationVersions;
+        this.snapshotsKept = snapshotsKept;
+    }
+
+    private record Stay(long userId, long roomId, LocalDate checkIn, LocalDate checkOut) {}
+
+    /**
+     * One page of the reservations as they were at {@code at}, in id order after {@code after}. Only the first
+     * {@code size + 1} reservations after the cursor found in the snapshot or the events since are replayed. Some of
+     * them may have been cancelled by then, so a page can hold fewer than {@code size} and still have a next one.
+     */
+    public PageDTO<ReservationResponseDTO> stateAt(OffsetDateTime at, long after, int size) {
+        long head = ledger.committedHead();
+        Long base = jdbcTemplate.queryForObject("SELECT max(seq) FROM reservation_snapshots WHERE taken_at <= ? AND seq <= ?", Long.class, at, head);
+        long baseSeq = base == null ? 0 : base;
+        List<Long> candidates = jdbcTemplate.queryForList("""
+                SELECT id FROM (
+                    (SELECT reservation_id AS id FROM reservation_snapshot_rows WHERE snapshot_seq = ? AND reservation_id > ? ORDER BY reservation_id LIMIT ?)
+                    UNION
+                    (SELECT DISTINCT reservation_id FROM reservation_events WHERE seq > ? AND seq <= ? AND recorded_at <= ? AND reservation_id > ? ORDER BY reservation_id LIMIT ?)
+                ) candidates ORDER BY id LIMIT ?""", Long.class, baseSeq, after, size + 1, baseSeq, head, at, after, size + 1, size + 1);
+        if (candidates.isEmpty()) { return new PageDTO<>(List.of(), null); }
+
+        long upTo = candidates.get(Math.min(candidates.size(), size) - 1);
+        Map<Long, Stay> state = replay(base, head, at, after, upTo);
+        List<ReservationResponseDTO> items = state.entrySet().stream()
+                .map(e -> new ReservationResponseDTO(e.getKey(), e.getValue().userId(), e.getValue().roomId(), e.getValue().checkIn(), e.getValue().checkOut()))
+                .toList();
+        return new PageDTO<>(items, candidates.size() > size ? upTo : null);
+    }
+
+    /**
+     * Stores the state after every committed event; returns the sequence number it covers. Every instance runs the
+     * nightly job: they queue on an advisory lock, and the later ones find the snapshot already stored.
+     */
+    @Scheduled(cron = "${reservation.ledger.snapshot-cron:0 0 4 * * *}")
+    public long snapshot() {
+        long head = ledger.committedHead();
+        Integer stored = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(hashtext('reservation_ledger_snapshot'))");
+            Long base = latestSnapshot(head);
+            if (base != null && base == head) { return null; }
+            Map<Long, Stay> state = replay(base, head, null, 0, Long.MAX_VALUE);
+
+            jdbcTemplate.update("INSERT INTO reservation_snapshots (seq, reservations) VALUES (?, ?)", head, state.size());
+            jdbcTemplate.batchUpdate("INSERT INTO reservation_snapshot_rows (snapshot_seq, reservation_id, user_id, room_id, check_in, check_out) VALUES (?, ?, ?, ?, ?, ?)",
+                    state.entrySet(), 1000, (ps, e) -> {
+                        ps.setLong(1, head);
+                        ps.setLong(2, e.getKey());
+                        ps.setLong(3, e.getValue().userId());
+                        ps.setLong(4, e.getValue().roomId());
+                        ps.setObject(5, e.getValue().checkIn());
+                        ps.setObject(6, e.getValue().checkOut());
+                    });
+            jdbcTemplate.update("DELETE FROM reservation_snapshots WHERE seq < (SELECT min(seq) FROM (SELECT seq FROM reservation_snapshots ORDER BY seq DESC LIMIT ?) kept)", snapshotsKept);
+            return state.size();
+        });
+        if (stored != null) { log.info("Reservation snapshot at event {} holds {} reservations", head, stored); }
+        return head;
+    }
+
+    /**
+     * Replaces the contents of {@code reservations} with the state replayed from the ledger, leaving out stays in
+     * archived months, and reloads the availability index. Booking writes wait until it commits. Returns the number
+     * of reservations written.
+     */
+    public int rebuild() {
+        Integer written = transactionTemplate.execute(status -> {
+            // bookings write reservations before they append, so lock in the same order
+            jdbcTemplate.execute("LOCK TABLE reservations IN EXCLUSIVE MODE");
+            long head = ledger.lockHead();
+            Map<Long, Stay> state = replay(latestSnapshot(head), head, null, 0, Long.MAX_VALUE);
+            jdbcTemplate.queryForList("SELECT id FROM reservations_archive", Long.class).forEach(state::remove);
+
+            jdbcTemplate.update("DELETE FROM reservations");
+            jdbcTemplate.batchUpdate("INSERT INTO reservations (id, user_id, room_id, date, check_out) VALUES (?, ?, ?, ?, ?)",
+                    state.entrySet(), 1000, (ps, e) -> {
+                        ps.setLong(1, e.getKey());
+                        ps.setLong(2, e.getValue().userId());
+                        ps.setLong(3, e.getValue().roomId());
+                        ps.setObject(4, e.getValue().checkIn());
+                        ps.setObject(5, e.getValue().checkOut());
+                    });
+            reservationVersions.changedAll();
+            return state.size();
+        });
+        availabilityIndex.load();
+        return written;
+    }
+
+    private Long latestSnapshot(long head) {
+        return jdbcTemplate.queryForObject("SELECT max(seq) FROM reservation_snapshots WHERE seq <= ?", Long.class, head);
+    }
+
+    /**
+     * The snapshot at {@code base} (none when null) with the events after it up to {@code head} applied, in id order.
+     * Covers the reservations with ids after {@code afterId} up to and including {@code toId}.
+     */
+    private Map<Long, Stay> replay(Long base, long head, OffsetDateTime at, long afterId, long toId) {
+        Map<Long, Stay> state = new TreeMap<>();
+        if (base != null) {
+            jdbcTemplate.query("SELECT reservation_id, user_id, room_id, check_in, check_out FROM reservation_snapshot_rows WHERE snapshot_seq = ? AND reservation_id > ? AND reservation_id <= ?",
+                    rs -> { state.put(rs.getLong(1), new Stay(rs.getLong(2), rs.getLong(3), rs.getObject(4, LocalDate.class), rs.getObject(5, LocalDate.class))); },
+                    base, afterId, toId);
+        }
+        ledger.replay(base == null ? 0 : base, head, at, afterId, toId, event -> apply(state, event));
+        return state;
+    }
+
+    private static void apply(Map<Long, Stay> state, ReservationEventDTO event) {
+        if ("CANCELLED".equals(event.getType())) { state.remove(event.getReservationId()); }
+        else { state.put(event.getReservationId(), new Stay(event.getUserId(), event.getRoomId(), event.getCheckIn(), event.getCheckOut())); }
+    }
+}
\ No newline at end of file
@@ -3,35 +3,60 @@ package org.example.hotelreservation.service;
 import lombok.RequiredArgsConstructor;
 import org.example.hotelreservation.dto.*;
 import org.example.hotelreservation.entity.Reservation;
+import org.example.hotelreservation.entity.Room;
+import org.example.hotelreservation.entity.User;
+import org.example.hotelreservation.event.ReservationChangedEvent;
 import org.example.hotelreservation.repository.*;
 import org.example.hotelreservation.util.ReservationMapper;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class ReservationService {
+    private static final Set<String> BOOKING_CONSTRAINTS = Set.of("uq_reservation_room_date", "ex_reservation_room_stay");
+    /** Raised by the overlap trigger; Hibernate does not extract constraint names for it. */
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
     private final ReservationRepository reservationRepository;
     private final UserRepository userRepository;
     private final RoomRepository roomRepository;
+    private final RoomCatalog roomCatalog;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final BookingCoordinator bookingCoordinator;
+    private final BookingMetrics bookingMetrics;
+    private final ReservationLedger ledger;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ReservationResponseDTO createReservation(ReservationRequestDTO dto) {
-        if (reservationRepository.existsByRoomIdAndDate(dto.getRoomId(), dto.getDate())) {
-            throw new RuntimeException("Room is already booked on this date.");
-        }
-        Reservation r = ReservationMapper.toEntity(dto, userRepository, roomRepository);
-        Reservation saved = reservationRepository.save(r);
-        return ReservationMapper.toResponse(saved);
+        LocalDate checkOut = ReservationMapper.checkOutOf(dto);
+        if (!checkOut.isAfter(dto.getDate())) { throw new RuntimeException("Check-out date must be after check-in date."); }
+        if (checkOut.isAfter(dto.getDate().plusDays(Reservation.MAX_NIGHTS))) { throw new RuntimeException("A stay cannot be longer than " + Reservation.MAX_NIGHTS + " nights."); }
+        return bookingMetrics.booking("create", () -> bookingCoordinator.withNightLocks(dto.getRoomId(), dto.getDate(), checkOut, () -> {
+            if (!bookingMetrics.phase(BookingMetrics.CONFLICT_CHECK, () -> isAvailable(dto.getRoomId(), dto.getDate(), checkOut, null))) {
+                throw new BookingConflictException();
+            }
+            Reservation r = bookingMetrics.phase(BookingMetrics.LOOKUP, () -> ReservationMapper.toEntity(dto, userOf(dto.getUserId()), roomOf(dto.getRoomId())));
+            Reservation saved = bookingMetrics.phase(BookingMetrics.INSERT, () -> saveGuarded(r));
+            record(ReservationChangedEvent.created(saved));
+            return ReservationMapper.toResponse(saved);
+        }));
     }
 
     @Transactional(readOnly = true)
-    public List<ReservationResponseDTO> getAllReservations() {
-        return reservationRepository.findAll().stream().map(ReservationMapper::toResponse).collect(Collectors.toList());
+    public PageDTO<ReservationResponseDTO> getAllReservations(long after, int size) {
+        List<ReservationResponseDTO> rows = reservationRepository.findResponsesAfter(after, Limit.of(size + 1));
+        return PageDTO.of(rows, size, ReservationResponseDTO::getId, Function.identity());
     }
 
     @Transactional(readOnly = true)
@@ -41,38 +66,88 @@ public class ReservationService {
     }
 
     @Transactional(readOnly = true)
-    public List<ReservationResponseDTO> getReservationsByUser(Long userId) {
-        return reservationRepository.findByUserId(userId).stream().map(ReservationMapper::toResponse).collect(Collectors.toList());
+    public PageDTO<ReservationResponseDTO> getReservationsByUser(Long userId, long after, int size) {
+        List<ReservationResponseDTO> rows = reservationRepository.findResponsesByUserIdAfter(userId, after, Limit.of(size + 1));
+        return PageDTO.of(rows, size, ReservationResponseDTO::getId, Function.identity());
     }
 
     @Transactional(readOnly = true)
     public List<ReservationResponseDTO> getReservationsByDate(LocalDate date) {
-        return reservationRepository.findByDate(date).stream().map(ReservationMapper::toResponse).collect(Collectors.toList());
+        return reservationRepository.findResponsesByDate(date);
     }
 
     @Transactional(readOnly = true)
     public List<ReservationResponseDTO> getReservationsByDateAndUser(LocalDate date, Long userId) {
-        return reservationRepository.findByDateAndUserId(date, userId).stream().map(ReservationMapper::toResponse).collect(Collectors.toList());
+        return reservationRepository.findResponsesByDateAndUserId(date, userId);
     }
 
 
     public ReservationResponseDTO updateReservation(Long id, ReservationRequestDTO dto) {
         Reservation existing = reservationRepository.findById(id).orElseThrow(() -> new RuntimeException("Reservation not found: " + id));
+        ReservationChangedEvent.Booking previous = ReservationChangedEvent.Booking.of(existing);
+
+        LocalDate checkOut = ReservationMapper.checkOutOf(dto);
+        if (!checkOut.isAfter(dto.getDate())) { throw new RuntimeException("Check-out date must be after check-in date."); }
+        if (checkOut.isAfter(dto.getDate().plusDays(Reservation.MAX_NIGHTS))) { throw new RuntimeException("A stay cannot be longer than " + Reservation.MAX_NIGHTS + " nights."); }
+
+        boolean isRoomOrDateChanged = !dto.getRoomId().equals(existing.getRoom().getId()) || !existing.getDate().equals(dto.getDate())
+                || !checkOut.equals(existing.getCheckOut());
 
-        boolean isRoomOrDateChanged = !existing.getRoom().getId().equals(dto.getRoomId()) || !existing.getDate().equals(dto.getDate());
+        return bookingMetrics.booking("update", () -> bookingCoordinator.withNightLocks(dto.getRoomId(), dto.getDate(), checkOut, () -> {
+            if (isRoomOrDateChanged) {
+                boolean conflict = !bookingMetrics.phase(BookingMetrics.CONFLICT_CHECK, () -> isAvailable(dto.getRoomId(), dto.getDate(), checkOut, existing));
+                if (conflict) { throw new BookingConflictException(); }
+            }
 
-        if (isRoomOrDateChanged) {
-            boolean conflict = reservationRepository.existsByRoomIdAndDate(dto.getRoomId(), dto.getDate());
-            if (conflict) { throw new RuntimeException("Room is already booked on this date."); }
+            bookingMetrics.phase(BookingMetrics.LOOKUP, () -> ReservationMapper.updateEntity(existing, dto, userOf(dto.getUserId()), roomOf(dto.getRoomId())));
+            Reservation saved = bookingMetrics.phase(BookingMetrics.INSERT, () -> saveGuarded(existing));
+            record(ReservationChangedEvent.moved(previous, saved));
+            return ReservationMapper.toResponse(saved);
+        }));
+    }
+
+    /** Flushes the write so a booking that slipped past the index is rejected here by the database constraints. */
+    private Reservation saveGuarded(Reservation r) {
+        try {
+            return reservationRepository.saveAndFlush(r);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException cve
+                    && (EXCLUSION_VIOLATION.equals(cve.getSQLState()) || cve.getConstraintName() != null && BOOKING_CONSTRAINTS.contains(cve.getConstraintName()))) {
+                availabilityIndex.invalidate(r.getRoom().getId());
+                throw new BookingConflictException();
+            }
+            throw e;
         }
+    }
 
-        ReservationMapper.updateEntity(existing, dto, userRepository, roomRepository);
-        Reservation saved = reservationRepository.save(existing);
-        return ReservationMapper.toResponse(saved);
+    /** Checks {@code [from, to)} against the index, ignoring the nights already held by {@code own}. */
+    private boolean isAvailable(Long roomId, LocalDate from, LocalDate to, Reservation own) {
+        if (own == null || !roomId.equals(own.getRoom().getId())) { return availabilityIndex.isFree(roomId, from, to); }
+        LocalDate beforeOwn = to.isBefore(own.getDate()) ? to : own.getDate();
+        LocalDate afterOwn = from.isAfter(own.getCheckOut()) ? from : own.getCheckOut();
+        return availabilityIndex.isFree(roomId, from, beforeOwn) && availabilityIndex.isFree(roomId, afterOwn, to);
     }
 
     public void deleteReservation(Long id) {
-        if (!reservationRepository.existsById(id)) { throw new RuntimeException("Reservation not found: " + id); }
-        reservationRepository.deleteById(id);
+        Reservation existing = reservationRepository.findById(id).orElseThrow(() -> new RuntimeException("Reservation not found: " + id));
+        reservationRepository.delete(existing);
+        reservationRepository.flush();
+        record(ReservationChangedEvent.cancelled(existing));
+    }
+
+    /** Appends a change that was just written to {@code reservations} to the ledger and tells the listeners. */
+    private void record(ReservationChangedEvent event) {
+        ledger.append(event);
+        eventPublisher.publishEvent(event);
+    }
+
+    private User userOf(Long userId) {
+        return userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found: " + userId));
+    }
+
+    /** Rooms are checked against the catalog, so the booking only needs an unloaded reference for the foreign key. */
+    private Room roomOf(Long roomId) {
+        if (!roomCatalog.contains(roomId)) { throw new RuntimeException("Room not found: " + roomId); }
+        return roomRepository.getReferenceById(roomId);
     }
 }
\ No newline at end of file
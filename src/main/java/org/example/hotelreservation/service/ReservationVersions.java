@@ -0,0 +1,121 @@
+package org.example.hotelreservation.service;
+
+import jakarta.annotation.PostConstruct;
+import org.example.hotelreservation.dto.ReservationEventDTO;
+import org.example.hotelreservation.event.ReservationChangedEvent;
+import org.example.hotelreservation.service.ReservationChangeFeed.Changes;
+import org.example.hotelreservation.service.ReservationChangeFeed.Cursor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Change counters for reservation reads: one for the whole table and one per user stripe. They are bumped once a
+ * change has committed, so a version read before the data never labels older data. Users are hashed onto a fixed
+ * number of stripes; users sharing a stripe only cost each other a refetch, never a stale answer.
+ * <p>
+ * Changes made by this instance bump the counters right away. Changes committed by other instances follow from the
+ * ledger and from the shared {@link ChangeGenerations#RESERVATIONS} counter, polled every
+ * {@code reservation.versions.poll-interval}; until then this instance may still answer {@code 304} for them. The
+ * poll skips the ledger events of changes this instance has already counted.
+ */
+@Component
+public class ReservationVersions {
+    static final int USER_STRIPES = 4096;
+    private static final int POLL_BATCH = 1000;
+
+    private final ReservationChangeFeed changeFeed;
+    private final ReservationLedger ledger;
+    private final ChangeGenerations generations;
+    private final AtomicLong all = new AtomicLong();
+    private final AtomicLongArray users = new AtomicLongArray(USER_STRIPES);
+    private final LocalChanges countedHere = new LocalChanges();
+    private Cursor seen;
+    private long seenGeneration;
+
+    public ReservationVersions(ReservationChangeFeed changeFeed, ReservationLedger ledger, ChangeGenerations generations) {
+        this.changeFeed = changeFeed;
+        this.ledger = ledger;
+        this.generations = generations;
+    }
+
+    /** Starts from the present: tags handed out by earlier runs carry another epoch and never match. */
+    @PostConstruct
+    synchronized void start() {
+        seenGeneration = generations.current(ChangeGenerations.RESERVATIONS);
+        seen = changeFeed.head();
+    }
+
+    public long all() { return all.get(); }
+
+    public long ofUser(long userId) { return users.get(stripe(userId)); }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onReservationChanging(ReservationChangedEvent event) { countedHere.note(event.reservationId()); }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onReservationChangeRolledBack(ReservationChangedEvent event) { countedHere.consume(event.reservationId()); }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (event.previous() != null) { users.incrementAndGet(stripe(event.previous().userId())); }
+        if (event.current() != null) { users.incrementAndGet(stripe(event.current().userId())); }
+        all.incrementAndGet();
+    }
+
+    /**
+     * For changes that bypass the reservation service, such as archiving months or a rebuild from the ledger. Called
+     * inside the transaction making the change; every instance invalidates all reservation reads once it commits.
+     */
+    public void changedAll() {
+        generations.advance(ChangeGenerations.RESERVATIONS);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bumpAll();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() { bumpAll(); }
+        });
+    }
+
+    /** Catches up with changes committed by other instances since the last poll. */
+    @Scheduled(fixedDelayString = "${reservation.versions.poll-interval:1000}")
+    public synchronized void poll() {
+        long generation = generations.current(ChangeGenerations.RESERVATIONS);
+        if (generation != seenGeneration) {
+            seenGeneration = generation;
+            bumpAll();
+        }
+        Changes changes;
+        do {
+            changes = changeFeed.read(seen, POLL_BATCH);
+            boolean changed = false;
+            for (ReservationEventDTO event : changes.events()) {
+                if (countedHere.consume(event.getReservationId())) { continue; }
+                changed = true;
+                users.incrementAndGet(stripe(event.getUserId()));
+                if ("MOVED".equals(event.getType())) {
+                    // the event names the new holder only, and a move may have taken the stay from another user
+                    ReservationEventDTO previous = ledger.eventBefore(event.getReservationId(), event.getSeq());
+                    if (previous != null && !previous.getUserId().equals(event.getUserId())) { users.incrementAndGet(stripe(previous.getUserId())); }
+                }
+            }
+            if (changed) { all.incrementAndGet(); }
+            seen = changes.next();
+        } while (changes.events().size() == POLL_BATCH);
+    }
+
+    private void bumpAll() {
+        for (int i = 0; i < USER_STRIPES; i++) { users.incrementAndGet(i); }
+        all.incrementAndGet();
+    }
+
+    private static int stripe(long userId) { return (int) (userId ^ (userId >>> 32)) & (USER_STRIPES - 1); }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package org.example.hotelreservation.service;
+
+import jakarta.annotation.PostConstruct;
+import org.example.hotelreservation.dto.ReservationEventDTO;
+import org.example.hotelreservation.event.AvailabilityChangedEvent;
+import org.example.hotelreservation.event.AvailabilityChangedEvent.Stay;
+import org.example.hotelreservation.event.ReservationChangedEvent;
+import org.example.hotelreservation.event.ReservationChangedEvent.Booking;
+import org.example.hotelreservation.repository.BookedStayView;
+import org.example.hotelreservation.repository.ReservationRepository;
+import org.example.hotelreservation.service.ReservationChangeFeed.Changes;
+import org.example.hotelreservation.service.ReservationChangeFeed.Cursor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory occupancy of every room from today onwards, kept as one {@link RoomOccupancy} bitset per room, so
+ * conflict checks never have to go to the database. The stay exclusion constraint remains the final guard.
+ * <p>
+ * Changes made by this instance are applied once they commit. Changes committed by other instances follow from the
+ * ledger, polled every {@code reservation.availability.poll-interval}, and wholesale changes from the shared
+ * {@link ChangeGenerations#RESERVATIONS} counter, which reloads everything. A nightly reload moves the lower bound
+ * to the new day.
+ * <p>
+ * Every change applied, from either source, is published as an {@link AvailabilityChangedEvent} after the index
+ * holds it, and so is a wholesale reload.
+ */
+@Component
+public class RoomAvailabilityIndex {
+    private static final int POLL_BATCH = 1000;
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationChangeFeed changeFeed;
+    private final ReservationLedger ledger;
+    private final ChangeGenerations generations;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Set<Long> staleRooms = ConcurrentHashMap.newKeySet();
+    private final LocalChanges appliedHere = new LocalChanges();
+    private volatile Map<Long, RoomOccupancy> rooms = new ConcurrentHashMap<>();
+    private Cursor seen;
+    private long seenGeneration;
+
+    public RoomAvailabilityIndex(ReservationRepository reservationRepository, ReservationChangeFeed changeFeed,
+                                 ReservationLedger ledger, ChangeGenerations generations, ApplicationEventPublisher eventPublisher) {
+        this.reservationRepository = reservationRepository;
+        this.changeFeed = changeFeed;
+        this.ledger = ledger;
+        this.generations = generations;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Builds the index from the database and swaps it in. The ledger position is taken first, so changes committed
+     * while loading are polled again; applying an event twice in order leaves the same nights booked.
+     */
+    @PostConstruct
+    public synchronized void load() {
+        seenGeneration = generations.current(ChangeGenerations.RESERVATIONS);
+        seen = changeFeed.head();
+        Map<Long, RoomOccupancy> loaded = new ConcurrentHashMap<>();
+        for (BookedStayView stay : reservationRepository.findBookedStaysFrom(LocalDate.now())) {
+            book(loaded, stay.getRoomId(), stay.getCheckIn(), stay.getCheckOut());
+        }
+        rooms = loaded;
+        // a change applied to the old map while loading must come in again from the ledger
+        appliedHere.clear();
+    }
+
+    /** Starts the day from a fresh load, which drops the nights that are now past. */
+    @Scheduled(cron = "${reservation.availability.reload-cron:0 5 0 * * *}")
+    public void reloadForNewDay() { load(); }
+
+    /** Drops what is known about a room, e.g. after the database rejected a booking the index allowed; it is reloaded on next use. */
+    public void invalidate(Long roomId) { staleRooms.add(roomId); }
+
+    public boolean isBooked(Long roomId, LocalDate date) {
+        RoomOccupancy occupancy = occupancyOf(roomId);
+        long day = date.toEpochDay();
+        return occupancy != null && !occupancy.isFree(day, day + 1);
+    }
+
+    /** True when the room has no booked night in {@code [from, to)}. */
+    public boolean isFree(Long roomId, LocalDate from, LocalDate to) {
+        RoomOccupancy occupancy = occupancyOf(roomId);
+        return occupancy == null || occupancy.isFree(from.toEpochDay(), to.toEpochDay());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onReservationChanging(ReservationChangedEvent event) { appliedHere.note(event.reservationId()); }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onReservationChangeRolledBack(ReservationChangedEvent event) { appliedHere.consume(event.reservationId()); }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        Booking previous = event.previous();
+        Booking current = event.current();
+        change(previous == null ? null : new Stay(previous.roomId(), previous.checkIn(), previous.checkOut()),
+                current == null ? null : new Stay(current.roomId(), current.checkIn(), current.checkOut()));
+    }
+
+    /** Applies the stays changed by other instances since the last poll. */
+    @Scheduled(fixedDelayString = "${reservation.availability.poll-interval:1000}")
+    public synchronized void poll() {
+        if (generations.current(ChangeGenerations.RESERVATIONS) != seenGeneration) {
+            load();
+            eventPublisher.publishEvent(AvailabilityChangedEvent.reloaded());
+            return;
+        }
+        Changes changes;
+        do {
+            changes = changeFeed.read(seen, POLL_BATCH);
+            for (ReservationEventDTO event : changes.events()) {
+                if (!appliedHere.consume(event.getReservationId())) { apply(event); }
+            }
+            seen = changes.next();
+        } while (changes.events().size() == POLL_BATCH);
+    }
+
+    private void apply(ReservationEventDTO event) {
+        switch (event.getType()) {
+            case "CANCELLED" -> change(stayOf(event), null);
+            case "MOVED" -> {
+                // the event carries the new stay only; the one it replaced is the reservation's previous event
+                ReservationEventDTO previous = ledger.eventBefore(event.getReservationId(), event.getSeq());
+                change(previous == null ? null : stayOf(previous), stayOf(event));
+            }
+            default -> change(null, stayOf(event));
+        }
+    }
+
+    private void change(Stay released, Stay booked) {
+        if (released != null) { release(released.roomId(), released.checkIn(), released.checkOut()); }
+        if (booked != null) { book(rooms, booked.roomId(), booked.checkIn(), booked.checkOut()); }
+        eventPublisher.publishEvent(new AvailabilityChangedEvent(released, booked));
+    }
+
+    private static Stay stayOf(ReservationEventDTO event) { return new Stay(event.getRoomId(), event.getCheckIn(), event.getCheckOut()); }
+
+    private RoomOccupancy occupancyOf(Long roomId) {
+        if (!staleRooms.isEmpty() && staleRooms.remove(roomId)) {
+            RoomOccupancy reloaded = new RoomOccupancy();
+            for (BookedStayView stay : reservationRepository.findBookedStaysByRoomFrom(roomId, LocalDate.now())) {
+                reloaded.book(stay.getCheckIn().toEpochDay(), stay.getCheckOut().toEpochDay());
+            }
+            rooms.put(roomId, reloaded);
+        }
+        return rooms.get(roomId);
+    }
+
+    private static void book(Map<Long, RoomOccupancy> rooms, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        rooms.computeIfAbsent(roomId, id -> new RoomOccupancy()).book(checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    private void release(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        RoomOccupancy occupancy = rooms.get(roomId);
+        if (occupancy != null) { occupancy.release(checkIn.toEpochDay(), checkOut.toEpochDay()); }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+package org.example.hotelreservation.service;
+
+import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.hotelreservation.entity.Room;
+import org.example.hotelreservation.event.RoomChangedEvent;
+import org.example.hotelreservation.repository.RoomRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of all rooms, indexed by id and by standard with each group sorted by price.
+ * Room changes are rare, so every change builds a new snapshot and swaps it in atomically.
+ * All room reads are served from here. The database is read at startup, and again whenever the shared
+ * {@link ChangeGenerations#ROOMS} counter shows that rooms were written, by another instance or by plain SQL.
+ */
+@Component
+public class RoomCatalog {
+    private final RoomRepository roomRepository;
+    private final ChangeGenerations generations;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter swaps;
+    private volatile Snapshot snapshot = Snapshot.of(List.of(), 0);
+    private volatile long loadedGeneration;
+
+    public RoomCatalog(RoomRepository roomRepository, ChangeGenerations generations, MeterRegistry meterRegistry) {
+        this.roomRepository = roomRepository;
+        this.generations = generations;
+        this.hits = meterRegistry.counter("room.catalog.lookups", "result", "hit");
+        this.misses = meterRegistry.counter("room.catalog.lookups", "result", "miss");
+        this.swaps = meterRegistry.counter("room.catalog.swaps");
+        Gauge.builder("room.catalog.size", this, catalog -> catalog.snapshot.byId().size()).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        // read first, so a write committed during the load is picked up by the next refresh
+        long generation = generations.current(ChangeGenerations.ROOMS);
+        swap(Snapshot.of(roomRepository.findAll().stream().map(CatalogRoom::of).toList(), snapshot.version() + 1));
+        loadedGeneration = generation;
+    }
+
+    /** Reloads once rooms were written anywhere since the last load, this instance's own writes included. */
+    @Scheduled(fixedDelayString = "${rooms.catalog.poll-interval:1000}")
+    public void refresh() {
+        if (generations.current(ChangeGenerations.ROOMS) != loadedGeneration) { load(); }
+    }
+
+    /** Goes up with every swap; read before the rooms, it never describes a newer catalog than the one read. */
+    public long version() { return snapshot.version(); }
+
+    public boolean contains(Long roomId) { return find(roomId).isPresent(); }
+
+    public Optional<CatalogRoom> find(Long roomId) {
+        CatalogRoom room = snapshot.byId().get(roomId);
+        (room != null ? hits : misses).increment();
+        return Optional.ofNullable(room);
+    }
+
+    /** Up to {@code limit} rooms with an id greater than {@code after}, in id order. */
+    public List<CatalogRoom> after(long after, int limit) {
+        CatalogRoom[] ordered = snapshot.ordered();
+        int low = 0, high = ordered.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ordered[mid].id() <= after) { low = mid + 1; } else { high = mid; }
+        }
+        return Arrays.asList(ordered).subList(low, Math.min(ordered.length, low + limit));
+    }
+
+    /** Rooms of the given standard (or all rooms when null) priced at most {@code maxPrice}, cheapest first. */
+    public List<CatalogRoom> cheapestFirst(String standard, Double maxPrice) {
+        Snapshot current = snapshot;
+        PriceIndex index = standard == null ? current.all() : current.byStandard().get(standard);
+        if (index == null) { return List.of(); }
+        int end = maxPrice == null ? index.rooms().length : index.upperBound(maxPrice);
+        return Arrays.asList(index.rooms()).subList(0, end);
+    }
+
+    /** Every standard that currently has at least one room. */
+    public Set<String> standards() { return snapshot.byStandard().keySet(); }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRoomChanged(RoomChangedEvent event) {
+        Map<Long, CatalogRoom> rooms = new HashMap<>(snapshot.byId());
+        if (event.room() == null) { rooms.remove(event.roomId()); }
+        else { rooms.put(event.roomId(), CatalogRoom.of(event.room())); }
+        swap(Snapshot.of(rooms.values(), snapshot.version() + 1));
+    }
+
+    private void swap(Snapshot next) {
+        snapshot = next;
+        swaps.increment();
+    }
+
+    public record CatalogRoom(long id, String number, String standard, double price) {
+        static CatalogRoom of(Room room) { return new CatalogRoom(room.getId(), room.getNumber(), room.getStandard(), room.getPrice()); }
+    }
+
+    private record PriceIndex(CatalogRoom[] rooms, double[] prices) {
+        static PriceIndex of(Collection<CatalogRoom> rooms) {
+            CatalogRoom[] sorted = rooms.stream()
+                    .sorted(Comparator.comparingDouble(CatalogRoom::price).thenComparingLong(CatalogRoom::id))
+                    .toArray(CatalogRoom[]::new);
+            double[] prices = new double[sorted.length];
+            for (int i = 0; i < sorted.length; i++) { prices[i] = sorted[i].price(); }
+            return new PriceIndex(sorted, prices);
+        }
+
+        /** Number of leading rooms whose price is at most {@code maxPrice}. */
+        int upperBound(double maxPrice) {
+            int low = 0, high = prices.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (prices[mid] <= maxPrice) { low = mid + 1; } else { high = mid; }
+            }
+            return low;
+        }
+    }
+
+    private record Snapshot(Map<Long, CatalogRoom> byId, CatalogRoom[] ordered, Map<String, PriceIndex> byStandard, PriceIndex all, long version) {
+        static Snapshot of(Collection<CatalogRoom> rooms, long version) {
+            Map<Long, CatalogRoom> byId = rooms.stream().collect(Collectors.toUnmodifiableMap(CatalogRoom::id, r -> r));
+            Map<String, PriceIndex> byStandard = rooms.stream()
+                    .collect(Collectors.groupingBy(CatalogRoom::standard)).entrySet().stream()
+                    .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> PriceIndex.of(e.getValue())));
+            CatalogRoom[] ordered = rooms.stream().sorted(Comparator.comparingLong(CatalogRoom::id)).toArray(CatalogRoom[]::new);
+            return new Snapshot(byId, ordered, byStandard, PriceIndex.of(rooms), version);
+        }
+    }
+}
\ No newline at end of file
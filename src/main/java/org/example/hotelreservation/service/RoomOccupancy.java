@@ -0,0 +1,76 @@
+package org.example.hotelreservation.service;
+
+/**
+ * Bitset of booked nights for a single room. Bit {@code i} stands for epoch day {@code baseDay + i};
+ * the backing array grows in whole 64-day words in either direction as bookings arrive.
+ */
+final class RoomOccupancy {
+    private static final int WORD_BITS = 64;
+
+    private long baseDay;
+    private long[] words = new long[0];
+
+    synchronized boolean isFree(long fromDay, long toDay) {
+        long from = Math.max(fromDay, baseDay);
+        long to = Math.min(toDay, endDay());
+        for (long day = from; day < to; ) {
+            int word = wordIndex(day);
+            long end = Math.min(to, wordEnd(word));
+            if ((words[word] & mask(day, end)) != 0) { return false; }
+            day = end;
+        }
+        return true;
+    }
+
+    synchronized void book(long fromDay, long toDay) {
+        if (fromDay >= toDay) { return; }
+        ensureCapacity(fromDay, toDay);
+        for (long day = fromDay; day < toDay; ) {
+            int word = wordIndex(day);
+            long end = Math.min(toDay, wordEnd(word));
+            words[word] |= mask(day, end);
+            day = end;
+        }
+    }
+
+    synchronized void release(long fromDay, long toDay) {
+        long from = Math.max(fromDay, baseDay);
+        long to = Math.min(toDay, endDay());
+        for (long day = from; day < to; ) {
+            int word = wordIndex(day);
+            long end = Math.min(to, wordEnd(word));
+            words[word] &= ~mask(day, end);
+            day = end;
+        }
+    }
+
+    private long endDay() { return baseDay + (long) words.length * WORD_BITS; }
+
+    private int wordIndex(long day) { return (int) ((day - baseDay) / WORD_BITS); }
+
+    private long wordEnd(int word) { return baseDay + (long) (word + 1) * WORD_BITS; }
+
+    private long mask(long fromDay, long toDay) {
+        int bit = (int) ((fromDay - baseDay) % WORD_BITS);
+        int count = (int) (toDay - fromDay);
+        return count == WORD_BITS ? -1L : ((1L << count) - 1) << bit;
+    }
+
+    private void ensureCapacity(long fromDay, long toDay) {
+        long lowDay = Math.floorDiv(fromDay, WORD_BITS) * WORD_BITS;
+        long highDay = Math.floorDiv(toDay + WORD_BITS - 1, WORD_BITS) * WORD_BITS;
+        if (words.length == 0) {
+            baseDay = lowDay;
+            words = new long[(int) ((highDay - lowDay) / WORD_BITS)];
+            return;
+        }
+        if (lowDay >= baseDay && highDay <= endDay()) { return; }
+
+        long newBase = Math.min(baseDay, lowDay);
+        long newEnd = Math.max(endDay(), highDay);
+        long[] grown = new long[(int) ((newEnd - newBase) / WORD_BITS)];
+        System.arraycopy(words, 0, grown, (int) ((baseDay - newBase) / WORD_BITS), words.length);
+        words = grown;
+        baseDay = newBase;
+    }
+}
\ No newline at end of file
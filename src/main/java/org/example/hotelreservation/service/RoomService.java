@@ -1,14 +1,18 @@
 package org.example.hotelreservation.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.hotelreservation.dto.PageDTO;
 import org.example.hotelreservation.dto.RoomRequestDTO;
 import org.example.hotelreservation.dto.RoomResponseDTO;
 import org.example.hotelreservation.entity.Room;
+import org.example.hotelreservation.event.RoomChangedEvent;
 import org.example.hotelreservation.repository.RoomRepository;
+import org.example.hotelreservation.service.RoomCatalog.CatalogRoom;
 import org.example.hotelreservation.util.RoomMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,28 +20,37 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class RoomService {
     private final RoomRepository roomRepository;
+    private final RoomCatalog roomCatalog;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     public RoomResponseDTO createRoom(RoomRequestDTO dto) {
         Room entity = RoomMapper.toEntity(dto);
         Room saved = roomRepository.save(entity);
+        eventPublisher.publishEvent(RoomChangedEvent.saved(saved));
         return RoomMapper.toResponse(saved);
     }
 
-    @Transactional(readOnly = true)
-    public List<RoomResponseDTO> getAllRoomsDto() {
-        return roomRepository.findAll().stream().map(RoomMapper::toResponse).collect(Collectors.toList());
+    public PageDTO<RoomResponseDTO> getAllRoomsDto(long after, int size) {
+        return PageDTO.of(roomCatalog.after(after, size + 1), size, CatalogRoom::id, RoomMapper::toResponse);
     }
 
-    @Transactional(readOnly = true)
     public RoomResponseDTO getRoomDtoById(Long id) {
-        Room room = roomRepository.findById(id).orElseThrow(()
+        CatalogRoom room = roomCatalog.find(id).orElseThrow(()
                 -> new RuntimeException("Room not found: " + id));
         return RoomMapper.toResponse(room);
     }
 
-    @Transactional(readOnly = true)
     public List<RoomResponseDTO> getRoomsByStandardDto(String standard) {
-        return roomRepository.findByStandard(standard).stream().map(RoomMapper::toResponse).collect(Collectors.toList());
+        return roomCatalog.cheapestFirst(standard, null).stream().map(RoomMapper::toResponse).collect(Collectors.toList());
+    }
+
+    public List<RoomResponseDTO> findAvailableRooms(LocalDate from, LocalDate to, String standard, Double maxPrice) {
+        if (!to.isAfter(from)) { throw new RuntimeException("Check-out date must be after check-in date."); }
+        return roomCatalog.cheapestFirst(standard, maxPrice).stream()
+                .filter(room -> availabilityIndex.isFree(room.id(), from, to))
+                .map(RoomMapper::toResponse)
+                .collect(Collectors.toList());
     }
 
     public RoomResponseDTO updateRoom(Long id, RoomRequestDTO dto) {
@@ -45,11 +58,13 @@ public class RoomService {
                 -> new RuntimeException("Room not found: " + id));
         RoomMapper.updateEntity(room, dto);
         Room saved = roomRepository.save(room);
+        eventPublisher.publishEvent(RoomChangedEvent.saved(saved));
         return RoomMapper.toResponse(saved);
     }
 
     public void deleteRoom(Long id) {
         if (!roomRepository.existsById(id)) { throw new RuntimeException("Room not found: " + id); }
         roomRepository.deleteById(id);
+        eventPublisher.publishEvent(RoomChangedEvent.deleted(id));
     }
 }
\ No newline at end of file
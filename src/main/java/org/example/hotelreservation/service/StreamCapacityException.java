@@ -0,0 +1,12 @@
+package org.example.hotelreservation.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Every live stream slot is taken; the client should fall back to polling or retry later. */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class StreamCapacityException extends RuntimeException {
+    public StreamCapacityException() {
+        super("Too many open availability streams.");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package org.example.hotelreservation.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** The caller already holds as many live streams as one user may; it should close one before opening another. */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class StreamLimitException extends RuntimeException {
+    public StreamLimitException() {
+        super("Too many open availability streams for this user.");
+    }
+}
\ No newline at end of file
@@ -1,24 +1,35 @@
 package org.example.hotelreservation.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.hotelreservation.dto.PageDTO;
 import org.example.hotelreservation.dto.UserRequestDTO;
 import org.example.hotelreservation.dto.UserResponseDTO;
 import org.example.hotelreservation.dto.UserSummaryDTO;
 import org.example.hotelreservation.entity.User;
+import org.example.hotelreservation.event.UserChangedEvent;
+import org.example.hotelreservation.repository.ReservationIdView;
+import org.example.hotelreservation.repository.ReservationRepository;
 import org.example.hotelreservation.repository.UserRepository;
+import org.example.hotelreservation.security.AuthenticatedUser;
 import org.example.hotelreservation.util.UserMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
+    private final ReservationRepository reservationRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     public User registerUser(User user) {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
@@ -28,40 +39,63 @@ public class UserService {
     public UserResponseDTO createUser(UserRequestDTO dto) {
         User entity = UserMapper.toEntity(dto);
         User saved = registerUser(entity);
-        return UserMapper.toResponse(saved);
+        return toResponse(saved);
     }
 
     public Optional<User> findByUsername(String username) { return userRepository.findByUsername(username); }
 
+    public Optional<AuthenticatedUser> findPrincipalByUsername(String username) {
+        return userRepository.findPrincipalByUsername(username).map(AuthenticatedUser::of);
+    }
+
     public UserResponseDTO getUserDtoByUsername(String username) {
         User user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found with username = " + username));
-        return UserMapper.toResponse(user);
+        return toResponse(user);
     }
 
     public UserSummaryDTO getUserSummaryByUsername(String username) {
-        User user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found with username = " + username));
-        return UserMapper.toSummary(user);
+        return userRepository.findSummaryByUsername(username).orElseThrow(() -> new RuntimeException("User not found with username = " + username));
     }
 
     public List<User> getAllUsers() { return userRepository.findAll(); }
 
-    public List<UserSummaryDTO> getAllUsersSummary() {
-        return userRepository.findAll().stream().map(UserMapper::toSummary).collect(Collectors.toList());
+    public PageDTO<UserResponseDTO> getAllUsersDto(long after, int size) {
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(size + 1));
+        List<Long> ids = users.stream().limit(size).map(User::getId).toList();
+        Map<Long, List<Long>> reservationIds = reservationRepository.findIdsByUserIdIn(ids).stream()
+                .collect(Collectors.groupingBy(ReservationIdView::getUserId, Collectors.mapping(ReservationIdView::getId, Collectors.toList())));
+        return PageDTO.of(users, size, User::getId, u -> UserMapper.toResponse(u, reservationIds.getOrDefault(u.getId(), List.of())));
+    }
+
+    public PageDTO<UserSummaryDTO> getAllUsersSummary(long after, int size) {
+        List<UserSummaryDTO> rows = userRepository.findSummariesAfter(after, Limit.of(size + 1));
+        return PageDTO.of(rows, size, UserSummaryDTO::getId, Function.identity());
     }
 
+    public Optional<UserSummaryDTO> findUserSummaryById(Long id) { return userRepository.findSummaryById(id); }
+
     public Optional<User> getUserById(Long id) { return userRepository.findById(id); }
 
     public UserResponseDTO getUserDTOById(Long id) {
         User u = getUserById(id).orElseThrow(() -> new RuntimeException("User not found with id = " + id));
-        return UserMapper.toResponse(u);
+        return toResponse(u);
     }
 
     public UserResponseDTO updateUser(Long id, UserRequestDTO dto) {
         User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
         UserMapper.updateEntity(user, dto, passwordEncoder);
         User saved = userRepository.save(user);
-        return UserMapper.toResponse(saved);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
+        return toResponse(saved);
+    }
+
+    public void deleteUser(Long id) {
+        userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
     }
 
-    public void deleteUser(Long id) { userRepository.deleteById(id); }
+    private UserResponseDTO toResponse(User user) {
+        List<Long> reservationIds = user.getId() == null ? List.of() : reservationRepository.findIdsByUserId(user.getId());
+        return UserMapper.toResponse(user, reservationIds);
+    }
 }
\ No newline at end of file
@@ -2,25 +2,33 @@ package org.example.hotelreservation.util;
 
 import org.example.hotelreservation.dto.*;
 import org.example.hotelreservation.entity.*;
-import org.example.hotelreservation.repository.*;
+
+import java.time.LocalDate;
 
 public class ReservationMapper {
 
-    public static Reservation toEntity(ReservationRequestDTO dto, UserRepository userRepo, RoomRepository roomRepo) {
+    public static Reservation toEntity(ReservationRequestDTO dto, User user, Room room) {
         Reservation r = new Reservation();
-        r.setUser(userRepo.findById(dto.getUserId()).orElseThrow(() -> new RuntimeException("User not found: " + dto.getUserId())));
-        r.setRoom(roomRepo.findById(dto.getRoomId()).orElseThrow(() -> new RuntimeException("Room not found: " + dto.getRoomId())));
+        r.setUser(user);
+        r.setRoom(room);
         r.setDate(dto.getDate());
+        r.setCheckOut(checkOutOf(dto));
         return r;
     }
 
     public static ReservationResponseDTO toResponse(Reservation r) {
-        return new ReservationResponseDTO(r.getId(), r.getUser().getId(), r.getRoom().getId(), r.getDate());
+        return new ReservationResponseDTO(r.getId(), r.getUser().getId(), r.getRoom().getId(), r.getDate(), r.getCheckOut());
+    }
+
+    /** Check-out requested in the DTO, defaulting to a single night. */
+    public static LocalDate checkOutOf(ReservationRequestDTO dto) {
+        return dto.getCheckOut() != null ? dto.getCheckOut() : dto.getDate().plusDays(1);
     }
 
-    public static void updateEntity(Reservation existing, ReservationRequestDTO dto, UserRepository userRepo, RoomRepository roomRepo) {
+    public static void updateEntity(Reservation existing, ReservationRequestDTO dto, User user, Room room) {
         existing.setDate(dto.getDate());
-        existing.setUser(userRepo.findById(dto.getUserId()).orElseThrow(() -> new RuntimeException("User not found: " + dto.getUserId())));
-        existing.setRoom(roomRepo.findById(dto.getRoomId()).orElseThrow(() -> new RuntimeException("Room not found: " + dto.getRoomId())));
+        existing.setCheckOut(checkOutOf(dto));
+        existing.setUser(user);
+        existing.setRoom(room);
     }
 }
\ No newline at end of file
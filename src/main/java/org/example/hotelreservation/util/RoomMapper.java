@@ -3,6 +3,7 @@ package org.example.hotelreservation.util;
 import org.example.hotelreservation.dto.RoomRequestDTO;
 import org.example.hotelreservation.dto.RoomResponseDTO;
 import org.example.hotelreservation.entity.Room;
+import org.example.hotelreservation.service.RoomCatalog.CatalogRoom;
 
 public class RoomMapper {
 
@@ -21,6 +22,10 @@ public class RoomMapper {
         );
     }
 
+    public static RoomResponseDTO toResponse(CatalogRoom room) {
+        return new RoomResponseDTO(room.id(), room.number(), room.standard(), room.price());
+    }
+
     public static void updateEntity(Room room, RoomRequestDTO dto) {
         room.setNumber(dto.getNumber());
         room.setStandard(dto.getStandard());
@@ -1,12 +1,11 @@
 package org.example.hotelreservation.util;
 
 import org.example.hotelreservation.dto.*;
-import org.example.hotelreservation.entity.Reservation;
 import org.example.hotelreservation.entity.Role;
 import org.example.hotelreservation.entity.User;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.util.stream.Collectors;
+import java.util.List;
 
 public class UserMapper {
 
@@ -24,15 +23,13 @@ public class UserMapper {
         return u;
     }
 
-    public static UserResponseDTO toResponse(User user) {
+    public static UserResponseDTO toResponse(User user, List<Long> reservationIds) {
         UserResponseDTO r = new UserResponseDTO();
         r.setId(user.getId());
         r.setUsername(user.getUsername());
         r.setRole(user.getRole().name());
         r.setPassword(user.getPassword());
-        r.setReservations(user.getReservations().stream().map(Reservation::getId).collect(Collectors.toList()));
+        r.setReservations(reservationIds);
         return r;
     }
-
-    public static UserSummaryDTO toSummary(User user) { return new UserSummaryDTO(user.getId(), user.getUsername()); }
 }
\ No newline at end of file
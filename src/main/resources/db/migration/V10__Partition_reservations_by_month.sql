@@ -0,0 +1,123 @@
+-- Reservations are range-partitioned by check-in date, one partition per month (reservations_YYYY_MM) plus a
+-- default partition for dates no monthly partition covers yet. Months past the archive cutoff are detached and
+-- moved under reservations_archive, so the hot table and its indexes only span recent and upcoming stays.
+-- Stays are limited to 90 nights (Reservation.MAX_NIGHTS), which gives by-night queries a lower bound on the
+-- check-in date and lets Postgres prune all older partitions.
+
+CREATE OR REPLACE FUNCTION reservations_create_partition(month DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    first_day DATE := date_trunc('month', month)::date;
+    next_first_day DATE := (date_trunc('month', month) + interval '1 month')::date;
+    part TEXT := 'reservations_' || to_char(month, 'YYYY_MM');
+BEGIN
+    IF to_regclass(part) IS NOT NULL THEN RETURN FALSE; END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE reservations INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', part);
+    -- rows booked before the partition existed wait in the default partition, which must not overlap the new range
+    EXECUTE format('WITH moved AS (DELETE FROM reservations_default WHERE date >= %L AND date < %L RETURNING id, date, check_out, room_id, user_id) '
+                   'INSERT INTO %I (id, date, check_out, room_id, user_id) SELECT * FROM moved', first_day, next_first_day, part);
+    EXECUTE format('ALTER TABLE reservations ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', part, first_day, next_first_day);
+    RETURN TRUE;
+END $$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION reservations_ensure_partitions(from_month DATE, to_month DATE) RETURNS INT AS $$
+DECLARE
+    month DATE := date_trunc('month', from_month)::date;
+    created INT := 0;
+BEGIN
+    WHILE month <= to_month LOOP
+        IF reservations_create_partition(month) THEN created := created + 1; END IF;
+        month := (month + interval '1 month')::date;
+    END LOOP;
+    RETURN created;
+END $$ LANGUAGE plpgsql;
+
+-- Archived months keep their rows and indexes but no longer reference users and rooms, which may be deleted later.
+CREATE OR REPLACE FUNCTION reservations_archive_before(cutoff DATE) RETURNS INT AS $$
+DECLARE
+    part RECORD;
+    fk RECORD;
+    first_day DATE;
+    archived INT := 0;
+BEGIN
+    FOR part IN SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'reservations'::regclass AND c.relname ~ '^reservations_\d{4}_\d{2}$' ORDER BY c.relname LOOP
+        first_day := to_date(substr(part.relname, 14), 'YYYY_MM');
+        CONTINUE WHEN (first_day + interval '1 month')::date > cutoff;
+        EXECUTE format('ALTER TABLE reservations DETACH PARTITION %I', part.relname);
+        FOR fk IN SELECT conname FROM pg_constraint WHERE conrelid = part.relname::regclass AND contype = 'f' LOOP
+            EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', part.relname, fk.conname);
+        END LOOP;
+        EXECUTE format('ALTER TABLE reservations_archive ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       part.relname, first_day, (first_day + interval '1 month')::date);
+        archived := archived + 1;
+    END LOOP;
+    RETURN archived;
+END $$ LANGUAGE plpgsql;
+
+-- Exclusion constraints cannot span partitions, so overlapping stays of a room are rejected here, serialised per
+-- room with an advisory lock. The error matches what the exclusion constraint reported, so callers are unchanged.
+CREATE OR REPLACE FUNCTION reservations_prevent_overlap() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('reservations'), NEW.room_id::int);
+    IF EXISTS (SELECT 1 FROM reservations r
+               WHERE r.room_id = NEW.room_id AND r.id <> NEW.id
+                 AND r.date > NEW.date - 90 AND r.date < NEW.check_out AND r.check_out > NEW.date) THEN
+        RAISE EXCEPTION 'conflicting key value violates exclusion constraint "ex_reservation_room_stay"'
+            USING ERRCODE = 'exclusion_violation', CONSTRAINT = 'ex_reservation_room_stay', TABLE = 'reservations';
+    END IF;
+    RETURN NEW;
+END $$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    oldest DATE;
+    too_long BIGINT;
+    examples TEXT;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'reservations'::regclass) = 'p' THEN RETURN; END IF;
+
+    -- stays booked before the 90-night limit would fail ck_reservation_stay halfway through the copy; they have to be
+    -- shortened or split by hand, since neither choice can be made here for the guest
+    SELECT count(*), string_agg(id::text, ', ' ORDER BY id) FILTER (WHERE rn <= 20) INTO too_long, examples
+    FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM reservations WHERE check_out > date + 90) long_stays;
+    IF too_long > 0 THEN
+        RAISE EXCEPTION '% reservation(s) are longer than 90 nights and cannot be moved into the partitioned table', too_long
+            USING DETAIL = 'Reservation ids (first 20): ' || examples,
+                  HINT = 'Shorten or split these stays to at most 90 nights each, then run the migration again.';
+    END IF;
+
+    ALTER TABLE reservations RENAME TO reservations_unpartitioned;
+    ALTER TABLE reservations_unpartitioned DROP CONSTRAINT IF EXISTS reservations_pkey;
+    ALTER TABLE reservations_unpartitioned DROP CONSTRAINT IF EXISTS uq_reservation_room_date;
+    ALTER TABLE reservations_unpartitioned DROP CONSTRAINT IF EXISTS ex_reservation_room_stay;
+    DROP INDEX IF EXISTS idx_reservations_user_id_id;
+    DROP INDEX IF EXISTS idx_reservations_check_out_date;
+    ALTER SEQUENCE reservations_id_seq OWNED BY NONE;
+
+    CREATE TABLE reservations (
+        id BIGINT NOT NULL DEFAULT nextval('reservations_id_seq'),
+        date DATE NOT NULL,
+        check_out DATE NOT NULL,
+        room_id BIGINT NOT NULL,
+        user_id BIGINT NOT NULL,
+        CONSTRAINT reservations_pkey PRIMARY KEY (id, date),
+        CONSTRAINT uq_reservation_room_date UNIQUE (room_id, date),
+        CONSTRAINT ck_reservation_stay CHECK (check_out > date AND check_out <= date + 90),
+        CONSTRAINT fk_room FOREIGN KEY (room_id) REFERENCES rooms(id),
+        CONSTRAINT fk_user FOREIGN KEY (user_id) REFERENCES users(id)
+    ) PARTITION BY RANGE (date);
+    ALTER SEQUENCE reservations_id_seq OWNED BY reservations.id;
+    CREATE INDEX idx_reservations_user_id_id ON reservations (user_id, id);
+    CREATE INDEX idx_reservations_check_out_date ON reservations (check_out, date) INCLUDE (id, user_id, room_id);
+    CREATE TABLE reservations_default PARTITION OF reservations DEFAULT;
+    CREATE TABLE reservations_archive (LIKE reservations) PARTITION BY RANGE (date);
+
+    SELECT min(date) INTO oldest FROM reservations_unpartitioned;
+    PERFORM reservations_ensure_partitions(LEAST(oldest, (current_date - interval '12 months')::date), (current_date + interval '12 months')::date);
+    INSERT INTO reservations (id, date, check_out, room_id, user_id)
+        SELECT id, date, check_out, room_id, user_id FROM reservations_unpartitioned;
+    DROP TABLE reservations_unpartitioned;
+
+    CREATE TRIGGER trg_reservations_prevent_overlap BEFORE INSERT OR UPDATE OF room_id, date, check_out ON reservations
+        FOR EACH ROW EXECUTE FUNCTION reservations_prevent_overlap();
+END $$;
\ No newline at end of file
@@ -0,0 +1,33 @@
+-- Booked rooms and revenue per night and room standard, kept up to date by the application on every booking change
+-- so dashboards read one row per night and standard instead of scanning reservations. Revenue is the room price at
+-- the time of the change; occupancy_daily_rebuild() recomputes everything from current rooms for reconciliation.
+
+CREATE TABLE IF NOT EXISTS occupancy_daily (
+    day DATE NOT NULL,
+    standard VARCHAR(255) NOT NULL,
+    booked_rooms INT NOT NULL,
+    revenue NUMERIC(14, 2) NOT NULL,
+    CONSTRAINT pk_occupancy_daily PRIMARY KEY (day, standard)
+);
+
+-- Archived months are included so that history survives archival.
+CREATE OR REPLACE FUNCTION occupancy_daily_rebuild() RETURNS INT AS $$
+DECLARE
+    rebuilt INT;
+BEGIN
+    -- waits for bookings that already changed the aggregates and holds off new ones until the rebuild commits
+    LOCK TABLE occupancy_daily IN EXCLUSIVE MODE;
+    DELETE FROM occupancy_daily;
+    INSERT INTO occupancy_daily (day, standard, booked_rooms, revenue)
+    SELECT night::date, rm.standard, count(*), sum(rm.price)
+    FROM (SELECT room_id, date, check_out FROM reservations
+          UNION ALL
+          SELECT room_id, date, check_out FROM reservations_archive) r
+    JOIN rooms rm ON rm.id = r.room_id
+    CROSS JOIN LATERAL generate_series(r.date, r.check_out - 1, interval '1 day') night
+    GROUP BY night::date, rm.standard;
+    GET DIAGNOSTICS rebuilt = ROW_COUNT;
+    RETURN rebuilt;
+END $$ LANGUAGE plpgsql;
+
+SELECT occupancy_daily_rebuild();
\ No newline at end of file
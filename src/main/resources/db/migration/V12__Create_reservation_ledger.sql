@@ -0,0 +1,56 @@
+-- Append-only log of every booking change. reservations holds the current state and is the projection of this log;
+-- both are written in the same transaction. seq orders the changes; CREATED and MOVED carry the new stay,
+-- CANCELLED the stay that was cancelled. recorded_at is the start of the writing transaction.
+
+CREATE TABLE IF NOT EXISTS reservation_events (
+    seq BIGSERIAL PRIMARY KEY,
+    reservation_id BIGINT NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    user_id BIGINT NOT NULL,
+    room_id BIGINT NOT NULL,
+    check_in DATE NOT NULL,
+    check_out DATE NOT NULL,
+    recorded_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT ck_reservation_event_type CHECK (type IN ('CREATED', 'MOVED', 'CANCELLED'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_reservation_events_reservation ON reservation_events (reservation_id, seq);
+CREATE INDEX IF NOT EXISTS idx_reservation_events_recorded_at ON reservation_events (recorded_at);
+
+CREATE OR REPLACE FUNCTION reservation_events_append_only() RETURNS TRIGGER AS $$
+BEGIN
+    RAISE EXCEPTION 'reservation_events is append-only' USING ERRCODE = 'insufficient_privilege';
+END $$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_reservation_events_append_only ON reservation_events;
+CREATE TRIGGER trg_reservation_events_append_only BEFORE UPDATE OR DELETE ON reservation_events
+    FOR EACH ROW EXECUTE FUNCTION reservation_events_append_only();
+DROP TRIGGER IF EXISTS trg_reservation_events_no_truncate ON reservation_events;
+CREATE TRIGGER trg_reservation_events_no_truncate BEFORE TRUNCATE ON reservation_events
+    FOR EACH STATEMENT EXECUTE FUNCTION reservation_events_append_only();
+
+-- A snapshot is the full state after every event up to and including seq, so a replay starts from the latest one.
+CREATE TABLE IF NOT EXISTS reservation_snapshots (
+    seq BIGINT PRIMARY KEY,
+    taken_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    reservations INT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS reservation_snapshot_rows (
+    snapshot_seq BIGINT NOT NULL REFERENCES reservation_snapshots (seq) ON DELETE CASCADE,
+    reservation_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    room_id BIGINT NOT NULL,
+    check_in DATE NOT NULL,
+    check_out DATE NOT NULL,
+    CONSTRAINT pk_reservation_snapshot_rows PRIMARY KEY (snapshot_seq, reservation_id)
+);
+
+-- Existing bookings, archived months included, enter the log as created.
+INSERT INTO reservation_events (reservation_id, type, user_id, room_id, check_in, check_out)
+SELECT id, 'CREATED', user_id, room_id, date, check_out
+FROM (SELECT id, user_id, room_id, date, check_out FROM reservations
+      UNION ALL
+      SELECT id, user_id, room_id, date, check_out FROM reservations_archive) existing
+WHERE NOT EXISTS (SELECT 1 FROM reservation_events)
+ORDER BY id;
\ No newline at end of file
@@ -0,0 +1,7 @@
+-- The writing transaction of every ledger event, for the change feed. Sequence numbers are taken before commit, so
+-- a later number can become visible first; the feed therefore reads in (xid, seq) order and only serves events of
+-- transactions older than every transaction still running, which makes its cursor safe to resume from.
+
+ALTER TABLE reservation_events ADD COLUMN IF NOT EXISTS xid xid8 NOT NULL DEFAULT pg_current_xact_id();
+
+CREATE INDEX IF NOT EXISTS idx_reservation_events_xid_seq ON reservation_events (xid, seq);
\ No newline at end of file
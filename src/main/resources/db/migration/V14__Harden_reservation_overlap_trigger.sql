@@ -0,0 +1,22 @@
+-- The overlap trigger from V10 only protects stays if every write runs it and its check sees what the previous
+-- holder of the room lock committed. The trigger now also fires in replica sessions, refuses REPEATABLE READ writes
+-- (whose snapshot predates the lock, so a concurrent stay would go unseen; SERIALIZABLE detects the conflict itself),
+-- and derives the lock key without casting room ids past the int range.
+
+CREATE OR REPLACE FUNCTION reservations_prevent_overlap() RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('transaction_isolation') = 'repeatable read' THEN
+        RAISE EXCEPTION 'reservations cannot be written under REPEATABLE READ, the overlap check would not see concurrent stays'
+            USING ERRCODE = 'object_not_in_prerequisite_state', HINT = 'Write under READ COMMITTED or SERIALIZABLE.';
+    END IF;
+    PERFORM pg_advisory_xact_lock(hashtext('reservations'), (NEW.room_id % 2147483648)::int);
+    IF EXISTS (SELECT 1 FROM reservations r
+               WHERE r.room_id = NEW.room_id AND r.id <> NEW.id
+                 AND r.date > NEW.date - 90 AND r.date < NEW.check_out AND r.check_out > NEW.date) THEN
+        RAISE EXCEPTION 'conflicting key value violates exclusion constraint "ex_reservation_room_stay"'
+            USING ERRCODE = 'exclusion_violation', CONSTRAINT = 'ex_reservation_room_stay', TABLE = 'reservations';
+    END IF;
+    RETURN NEW;
+END $$ LANGUAGE plpgsql;
+
+ALTER TABLE reservations ENABLE ALWAYS TRIGGER trg_reservations_prevent_overlap;
\ No newline at end of file
@@ -0,0 +1,20 @@
+-- Counters of changes every application instance polls, so state kept in memory follows changes made elsewhere:
+-- by another instance or with plain SQL. A trigger advances the rooms counter on every write to rooms, which the
+-- room catalog reloads on.
+
+CREATE TABLE IF NOT EXISTS change_generations (
+    scope VARCHAR(32) PRIMARY KEY,
+    generation BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO change_generations (scope) VALUES ('rooms') ON CONFLICT DO NOTHING;
+
+CREATE OR REPLACE FUNCTION change_generations_advance() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE change_generations SET generation = generation + 1 WHERE scope = TG_ARGV[0];
+    RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_rooms_change_generation ON rooms;
+CREATE TRIGGER trg_rooms_change_generation AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON rooms
+    FOR EACH STATEMENT EXECUTE FUNCTION change_generations_advance('rooms');
\ No newline at end of file
@@ -0,0 +1,8 @@
+-- A shared counter for wholesale reservation changes the ledger does not describe, such as archiving months or a
+-- rebuild from the ledger. The application advances it in the transaction making the change; a TRUNCATE does too.
+
+INSERT INTO change_generations (scope) VALUES ('reservations') ON CONFLICT DO NOTHING;
+
+DROP TRIGGER IF EXISTS trg_reservations_truncate_generation ON reservations;
+CREATE TRIGGER trg_reservations_truncate_generation AFTER TRUNCATE ON reservations
+    FOR EACH STATEMENT EXECUTE FUNCTION change_generations_advance('reservations');
\ No newline at end of file
@@ -0,0 +1,26 @@
+-- occupancy_daily counts every booked night under the room's standard and price. When either changes, the room's
+-- nights, archived months included, move to the new standard and price in the same transaction, whoever changed the
+-- room. The table keeps matching occupancy_daily_rebuild(), and a later cancellation subtracts what was counted.
+-- The move is one statement in (day, standard) order, the order bookings write these rows in.
+CREATE OR REPLACE FUNCTION occupancy_daily_move_room() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO occupancy_daily (day, standard, booked_rooms, revenue)
+    SELECT night::date, rate.standard, sum(rate.sign), sum(rate.sign * rate.price::numeric)
+    FROM (SELECT date, check_out FROM reservations WHERE room_id = NEW.id
+          UNION ALL
+          SELECT date, check_out FROM reservations_archive WHERE room_id = NEW.id) r
+    CROSS JOIN (VALUES (OLD.standard, OLD.price, -1), (NEW.standard, NEW.price, 1)) rate (standard, price, sign)
+    CROSS JOIN LATERAL generate_series(r.date, r.check_out - 1, interval '1 day') night
+    GROUP BY night::date, rate.standard
+    HAVING sum(rate.sign) <> 0 OR sum(rate.sign * rate.price::numeric) <> 0
+    ORDER BY night::date, rate.standard
+    ON CONFLICT (day, standard) DO UPDATE SET booked_rooms = occupancy_daily.booked_rooms + EXCLUDED.booked_rooms,
+                                              revenue = occupancy_daily.revenue + EXCLUDED.revenue;
+    RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_rooms_move_occupancy ON rooms;
+CREATE TRIGGER trg_rooms_move_occupancy
+    AFTER UPDATE OF standard, price ON rooms
+    FOR EACH ROW WHEN (OLD.standard IS DISTINCT FROM NEW.standard OR OLD.price IS DISTINCT FROM NEW.price)
+    EXECUTE FUNCTION occupancy_daily_move_room();
\ No newline at end of file
@@ -0,0 +1,6 @@
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uq_reservation_room_date') THEN
+        ALTER TABLE reservations ADD CONSTRAINT uq_reservation_room_date UNIQUE (room_id, date);
+    END IF;
+END $$;
\ No newline at end of file
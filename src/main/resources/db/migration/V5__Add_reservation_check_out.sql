@@ -0,0 +1,17 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE reservations ADD COLUMN IF NOT EXISTS check_out DATE;
+UPDATE reservations SET check_out = date + 1 WHERE check_out IS NULL;
+ALTER TABLE reservations ALTER COLUMN check_out SET NOT NULL;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ck_reservation_stay') THEN
+        ALTER TABLE reservations ADD CONSTRAINT ck_reservation_stay CHECK (check_out > date);
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ex_reservation_room_stay') THEN
+        ALTER TABLE reservations ADD CONSTRAINT ex_reservation_room_stay
+            EXCLUDE USING gist (room_id WITH =, daterange(date, check_out) WITH &&);
+    END IF;
+END $$;
\ No newline at end of file
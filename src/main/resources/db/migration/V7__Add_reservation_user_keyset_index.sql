@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_reservations_user_id_id ON reservations (user_id, id);
\ No newline at end of file
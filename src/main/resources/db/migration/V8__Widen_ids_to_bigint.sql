@@ -0,0 +1,9 @@
+-- The entities map ids as Long; SERIAL columns are INTEGER and fail schema validation.
+ALTER TABLE users ALTER COLUMN id TYPE BIGINT;
+ALTER SEQUENCE users_id_seq AS BIGINT;
+
+ALTER TABLE rooms ALTER COLUMN id TYPE BIGINT;
+ALTER SEQUENCE rooms_id_seq AS BIGINT;
+
+ALTER TABLE reservations ALTER COLUMN id TYPE BIGINT;
+ALTER SEQUENCE reservations_id_seq AS BIGINT;
\ No newline at end of file
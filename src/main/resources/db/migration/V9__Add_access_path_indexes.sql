@@ -0,0 +1,11 @@
+-- Reservations by night (date <= :night AND check_out > :night) and the availability index load (check_out > :from).
+-- Leading with check_out keeps the scan to stays that have not ended yet, which stays small while history grows;
+-- the included columns make the DTO projections index-only.
+CREATE INDEX IF NOT EXISTS idx_reservations_check_out_date ON reservations (check_out, date) INCLUDE (id, user_id, room_id);
+
+-- Already covered:
+--   (room_id, date)  uq_reservation_room_date (V4): a room's stays (findBookedStaysByRoomEndingAfter) and the room_id foreign key
+--   (user_id, id)    idx_reservations_user_id_id (V7): a user's reservations, also filtered by night, and the user_id foreign key
+--   (username)       users unique constraint (V1): principal and summary lookups
+
+-- Rooms by standard and price need no index: searches filter the in-memory room catalog.
\ No newline at end of file
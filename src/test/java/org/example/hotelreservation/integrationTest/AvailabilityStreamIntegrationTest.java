@@ -0,0 +1,133 @@
+package org.example.hotelreservation.integrationTest;
+
+import org.example.hotelreservation.dto.ReservationRequestDTO;
+import org.example.hotelreservation.dto.RoomRequestDTO;
+import org.example.hotelreservation.dto.UserRequestDTO;
+import org.example.hotelreservation.service.ReservationService;
+import org.example.hotelreservation.service.RoomService;
+import org.example.hotelreservation.service.UserService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/** The SSE availability stream ({@code GET /api/rooms/availability/stream}) on an embedded Postgres. */
+@TestPropertySource(properties = {"availability.stream.max-subscribers=3", "availability.stream.max-per-user=2"})
+public class AvailabilityStreamIntegrationTest extends EmbeddedPostgresTest {
+    private static final LocalDate FROM = LocalDate.now().plusDays(1);
+    private static final LocalDate TO = FROM.plusDays(7);
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ReservationService reservationService;
+    @Autowired private RoomService roomService;
+    @Autowired private UserService userService;
+
+    private long userId;
+    private long standardRoomId;
+    private long deluxeRoomId;
+    private final List<MvcResult> open = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        userId = userService.createUser(new UserRequestDTO("frontdesk", "frontdesk123", "USER")).getId();
+        standardRoomId = roomService.createRoom(new RoomRequestDTO("F1", "Garden", 100)).getId();
+        deluxeRoomId = roomService.createRoom(new RoomRequestDTO("F2", "Terrace", 250)).getId();
+    }
+
+    @AfterEach
+    void closeStreams() {
+        open.forEach(result -> result.getRequest().getAsyncContext().complete());
+        open.clear();
+    }
+
+    private static MockHttpServletRequestBuilder stream(String username) {
+        return get("/api/rooms/availability/stream").param("from", FROM.toString()).param("to", TO.toString()).with(user(username).roles("USER"));
+    }
+
+    private MvcResult subscribe(String standard, String username) throws Exception {
+        var request = stream(username);
+        if (standard != null) { request.param("standard", standard); }
+        MvcResult result = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        open.add(result);
+        return result;
+    }
+
+    /** Waits until the stream has written something containing {@code expected}, and returns everything written so far. */
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        MockHttpServletResponse response = result.getResponse();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!response.getContentAsString().contains(expected)) {
+            if (System.currentTimeMillis() > deadline) { fail("stream never sent " + expected + ", got: " + response.getContentAsString()); }
+            Thread.sleep(20);
+        }
+        return response.getContentAsString();
+    }
+
+    @Test @DisplayName("a subscriber gets the booked nights, then every change inside its window and filter")
+    void testSnapshotAndChanges() throws Exception {
+        long existing = reservationService.createReservation(new ReservationRequestDTO(userId, standardRoomId, FROM, FROM.plusDays(1))).getId();
+        MvcResult stream = subscribe("Garden", "frontdesk");
+        awaitContent(stream, "event:snapshot\ndata:[{\"roomId\":" + standardRoomId + ",\"date\":\"" + FROM + "\",\"available\":false}]");
+
+        reservationService.createReservation(new ReservationRequestDTO(userId, deluxeRoomId, FROM.plusDays(2), FROM.plusDays(3)));
+        long booked = reservationService.createReservation(new ReservationRequestDTO(userId, standardRoomId, FROM.plusDays(3), FROM.plusDays(4))).getId();
+        awaitContent(stream, "{\"roomId\":" + standardRoomId + ",\"date\":\"" + FROM.plusDays(3) + "\",\"available\":false}");
+
+        reservationService.deleteReservation(existing);
+        String content = awaitContent(stream, "{\"roomId\":" + standardRoomId + ",\"date\":\"" + FROM + "\",\"available\":true}");
+        assertFalse(content.contains("\"roomId\":" + deluxeRoomId), "sent a change of a room outside the filter");
+
+        reservationService.deleteReservation(booked);
+    }
+
+    @Test @DisplayName("stays booked and cancelled by another instance reach the stream through the ledger")
+    void testChangesElsewhere() throws Exception {
+        MvcResult stream = subscribe("Garden", "frontdesk");
+        awaitContent(stream, "event:snapshot");
+
+        LocalDate night = FROM.plusDays(5);
+        long id = jdbcTemplate.queryForObject("INSERT INTO reservations (user_id, room_id, date, check_out) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, userId, standardRoomId, night, night.plusDays(1));
+        appendElsewhere(id, "CREATED", night);
+        awaitContent(stream, "{\"roomId\":" + standardRoomId + ",\"date\":\"" + night + "\",\"available\":false}");
+
+        jdbcTemplate.update("DELETE FROM reservations WHERE id = ?", id);
+        appendElsewhere(id, "CANCELLED", night);
+        awaitContent(stream, "{\"roomId\":" + standardRoomId + ",\"date\":\"" + night + "\",\"available\":true}");
+    }
+
+    private void appendElsewhere(long reservationId, String type, LocalDate night) {
+        jdbcTemplate.update("INSERT INTO reservation_events (reservation_id, type, user_id, room_id, check_in, check_out) VALUES (?, ?, ?, ?, ?, ?)",
+                reservationId, type, userId, standardRoomId, night, night.plusDays(1));
+    }
+
+    @Test @DisplayName("subscribers beyond the configured number are turned away")
+    void testCapacity() throws Exception {
+        subscribe(null, "frontdesk");
+        subscribe(null, "frontdesk");
+        subscribe(null, "nightdesk");
+        mockMvc.perform(stream("nightdesk")).andExpect(status().isServiceUnavailable());
+    }
+
+    @Test @DisplayName("one user cannot hold more than its share of the streams")
+    void testPerUserLimit() throws Exception {
+        subscribe(null, "frontdesk");
+        subscribe(null, "frontdesk");
+        mockMvc.perform(stream("frontdesk")).andExpect(status().isTooManyRequests());
+        subscribe(null, "nightdesk");
+    }
+}
\ No newline at end of file
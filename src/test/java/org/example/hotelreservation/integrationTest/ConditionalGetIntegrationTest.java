@@ -0,0 +1,163 @@
+package org.example.hotelreservation.integrationTest;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.hotelreservation.dto.ReservationRequestDTO;
+import org.example.hotelreservation.dto.RoomRequestDTO;
+import org.example.hotelreservation.dto.UserRequestDTO;
+import org.example.hotelreservation.service.ReservationProjector;
+import org.example.hotelreservation.service.ReservationService;
+import org.example.hotelreservation.service.RoomService;
+import org.example.hotelreservation.service.UserService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/** ETags and {@code 304 Not Modified} on room and reservation reads, including changes made elsewhere, on an embedded Postgres. */
+public class ConditionalGetIntegrationTest extends EmbeddedPostgresTest {
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private ReservationProjector projector;
+    @Autowired private ReservationService reservationService;
+    @Autowired private RoomService roomService;
+    @Autowired private UserService userService;
+
+    private long guestId;
+    private long otherGuestId;
+    private long roomId;
+    private LocalDate nextNight = LocalDate.now().plusDays(3);
+
+    @BeforeAll
+    void seed() {
+        guestId = userService.createUser(new UserRequestDTO("guest", "guest123", "USER")).getId();
+        otherGuestId = userService.createUser(new UserRequestDTO("other", "other123", "USER")).getId();
+        roomId = roomService.createRoom(new RoomRequestDTO("E1", "Standard", 100)).getId();
+    }
+
+    private void book(long userId) {
+        LocalDate night = nextNight;
+        nextNight = nextNight.plusDays(1);
+        reservationService.createReservation(new ReservationRequestDTO(userId, roomId, night, night.plusDays(1)));
+    }
+
+    /** Reads {@code path} as admin and returns its ETag after checking the expected status. */
+    private String read(String path, String ifNoneMatch, int expectedStatus) throws Exception {
+        var request = get(path).with(user("admin").roles("ADMIN"));
+        if (ifNoneMatch != null) { request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch); }
+        return mockMvc.perform(request).andExpect(status().is(expectedStatus)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    /** Waits until {@code path} no longer answers 304 to {@code etag}, and returns its new ETag. */
+    private String awaitChanged(String path, String etag) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            var response = mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag).with(user("admin").roles("ADMIN"))).andReturn().getResponse();
+            if (response.getStatus() == 200) { return response.getHeader(HttpHeaders.ETAG); }
+            Thread.sleep(20);
+        }
+        return fail(path + " still answered 304 to " + etag);
+    }
+
+    /** Appends the ledger event another instance would write along with its change, so only the database knows about it. */
+    private void appendElsewhere(long reservationId, String type, long userId, LocalDate night) {
+        jdbcTemplate.update("INSERT INTO reservation_events (reservation_id, type, user_id, room_id, check_in, check_out) VALUES (?, ?, ?, ?, ?, ?)",
+                reservationId, type, userId, roomId, night, night.plusDays(1));
+    }
+
+    private double statementsRun(String uri) {
+        DistributionSummary summary = meterRegistry.find("http.server.request.queries").tag("uri", uri).summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    @Test @DisplayName("the room catalog is cacheable and revalidates to 304 until a room changes")
+    void testRooms() throws Exception {
+        var first = mockMvc.perform(get("/api/rooms").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, private"))
+                .andReturn().getResponse();
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        var cached = mockMvc.perform(get("/api/rooms").header(HttpHeaders.IF_NONE_MATCH, etag).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, private"))
+                .andReturn().getResponse();
+        assertEquals("", cached.getContentAsString());
+        assertEquals(304, mockMvc.perform(get("/api/rooms/" + roomId).header(HttpHeaders.IF_NONE_MATCH, "W/" + etag).with(user("admin").roles("ADMIN")))
+                .andReturn().getResponse().getStatus());
+
+        roomService.createRoom(new RoomRequestDTO("E2", "Deluxe", 200));
+        assertNotEquals(etag, read("/api/rooms", etag, 200));
+    }
+
+    @Test @DisplayName("an unchanged reservation list answers 304 without running SQL, and any change or rebuild invalidates it")
+    void testReservations() throws Exception {
+        book(guestId);
+        String etag = read("/api/reservations", null, 200);
+
+        double before = statementsRun("/api/reservations");
+        read("/api/reservations", etag, 304);
+        assertEquals(before, statementsRun("/api/reservations"));
+
+        book(otherGuestId);
+        String changed = read("/api/reservations", etag, 200);
+        assertNotEquals(etag, changed);
+
+        projector.rebuild();
+        read("/api/reservations", changed, 200);
+    }
+
+    @Test @DisplayName("a user's reservation list only changes its ETag when that user's reservations change")
+    void testUserReservations() throws Exception {
+        String path = "/api/reservations/user/" + guestId;
+        String etag = read(path, null, 200);
+
+        book(otherGuestId);
+        read(path, etag, 304);
+
+        book(guestId);
+        assertNotEquals(etag, read(path, etag, 200));
+    }
+
+    @Test @DisplayName("changes committed by other instances or plain SQL change the ETags once this instance has polled")
+    void testChangesElsewhere() throws Exception {
+        String guestPath = "/api/reservations/user/" + guestId;
+        String otherPath = "/api/reservations/user/" + otherGuestId;
+        String guestTag = read(guestPath, null, 200);
+        String otherTag = read(otherPath, null, 200);
+        String allTag = read("/api/reservations", null, 200);
+        String roomsTag = read("/api/rooms", null, 200);
+
+        LocalDate night = nextNight;
+        nextNight = nextNight.plusDays(1);
+        long id = jdbcTemplate.queryForObject("INSERT INTO reservations (date, check_out, room_id, user_id) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, night, night.plusDays(1), roomId, guestId);
+        appendElsewhere(id, "CREATED", guestId, night);
+        guestTag = awaitChanged(guestPath, guestTag);
+        read(otherPath, otherTag, 304);
+
+        // the ledger only names the new holder; the previous one's list changes too
+        jdbcTemplate.update("UPDATE reservations SET user_id = ? WHERE id = ?", otherGuestId, id);
+        appendElsewhere(id, "MOVED", otherGuestId, night);
+        awaitChanged(guestPath, guestTag);
+        awaitChanged(otherPath, otherTag);
+
+        allTag = awaitChanged("/api/reservations", allTag);
+        jdbcTemplate.update("UPDATE change_generations SET generation = generation + 1 WHERE scope = 'reservations'");
+        awaitChanged("/api/reservations", allTag);
+
+        jdbcTemplate.update("UPDATE rooms SET price = price + 1 WHERE id = ?", roomId);
+        awaitChanged("/api/rooms", roomsTag);
+    }
+}
\ No newline at end of file
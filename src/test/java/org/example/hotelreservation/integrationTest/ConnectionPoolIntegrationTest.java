@@ -0,0 +1,88 @@
+package org.example.hotelreservation.integrationTest;
+
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/** The prod datasource profile and the per-request connection pool metrics, on an embedded Postgres with a tiny pool. */
+@TestPropertySource(properties = {"spring.datasource.hikari.maximum-pool-size=3", "spring.datasource.hikari.minimum-idle=3",
+        "spring.datasource.hikari.connection-timeout=250"})
+@ActiveProfiles("prod")
+public class ConnectionPoolIntegrationTest extends EmbeddedPostgresTest {
+    private static final LocalDate NIGHT = LocalDate.now().plusDays(30);
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private DataSource dataSource;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private long userId;
+    private long roomId;
+
+    @BeforeAll
+    void seed() throws Exception {
+        String user = mockMvc.perform(post("/api/users/register").with(user("admin").roles("ADMIN")).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"pooled\",\"password\":\"pooled123\",\"role\":\"USER\"}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        userId = Long.parseLong(JsonPath.read(user, "$.id").toString());
+        String room = mockMvc.perform(post("/api/rooms").with(user("admin").roles("ADMIN")).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"number\":\"P1\",\"standard\":\"Family\",\"price\":100}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        roomId = Long.parseLong(JsonPath.read(room, "$.id").toString());
+    }
+
+    @Test @DisplayName("bulk imports and their overlap checks work with rewritten batch inserts")
+    void testBatchedImport() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int night = 0; night < 20; night++) {
+            body.append("{\"userId\":").append(userId).append(",\"roomId\":").append(roomId)
+                    .append(",\"date\":\"").append(NIGHT.plusDays(night)).append("\"}\n");
+        }
+        body.append("{\"userId\":").append(userId).append(",\"roomId\":").append(roomId).append(",\"date\":\"").append(NIGHT).append("\"}\n");
+
+        mockMvc.perform(post("/api/reservations/bulk").with(user("admin").roles("ADMIN")).contentType(MediaType.APPLICATION_NDJSON).content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(20))
+                .andExpect(jsonPath("$.rejected").value(1));
+        assertEquals(20, jdbcTemplate.queryForObject("SELECT count(*) FROM reservations WHERE room_id = ?", Integer.class, roomId));
+        assertEquals(20, jdbcTemplate.queryForObject("SELECT sum(booked_rooms) FROM occupancy_daily WHERE standard = 'Family'", Integer.class));
+    }
+
+    @Test @DisplayName("pool waits and timeouts are recorded per endpoint")
+    void testConnectionMetrics() throws Exception {
+        mockMvc.perform(get("/api/reservations").with(user("admin").roles("ADMIN"))).andExpect(status().isOk());
+        assertTrue(meterRegistry.get("http.server.request.connection.wait").tags("method", "GET", "uri", "/api/reservations").timer().count() > 0);
+        assertNotNull(meterRegistry.get("hikaricp.connections.active").tag("pool", "reservations").gauge());
+
+        List<Connection> held = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3; i++) { held.add(dataSource.getConnection()); }
+            try {
+                mockMvc.perform(get("/api/reservations").with(user("admin").roles("ADMIN")));
+            } catch (Exception expected) {
+                // the pool is exhausted, so the request fails after the connection timeout
+            }
+        } finally {
+            for (Connection connection : held) { connection.close(); }
+        }
+        assertEquals(1, meterRegistry.get("http.server.request.connection.timeouts").tags("method", "GET", "uri", "/api/reservations").counter().count());
+        assertTrue(meterRegistry.get("hikaricp.connections.timeout").tag("pool", "reservations").counter().count() >= 1);
+    }
+}
\ No newline at end of file
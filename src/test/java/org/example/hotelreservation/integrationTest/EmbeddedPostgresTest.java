@@ -0,0 +1,46 @@
+package org.example.hotelreservation.integrationTest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Base for integration tests on an embedded Postgres, no Docker needed. One database is started for the whole test
+ * run and stopped when the JVM exits, so Spring's context cache hands the same application context to every test
+ * class with the same configuration. Classes that need other properties add them with {@code @TestPropertySource}
+ * and get a context of their own on the same database.
+ * <p>
+ * Test classes see each other's rows: they create their own users, rooms and room standards, and only assert on
+ * those or on the changes they make.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "rooms.catalog.poll-interval=100", "reservation.versions.poll-interval=100",
+        "reservation.availability.poll-interval=100"})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public abstract class EmbeddedPostgresTest {
+    private static EmbeddedPostgres postgres;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres().getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    private static synchronized EmbeddedPostgres postgres() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return postgres;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package org.example.hotelreservation.integrationTest;
+
+import org.example.hotelreservation.dto.OccupancyDTO;
+import org.example.hotelreservation.dto.ReservationRequestDTO;
+import org.example.hotelreservation.dto.RoomRequestDTO;
+import org.example.hotelreservation.dto.UserRequestDTO;
+import org.example.hotelreservation.service.OccupancyStatsService;
+import org.example.hotelreservation.service.ReservationService;
+import org.example.hotelreservation.service.RoomService;
+import org.example.hotelreservation.service.UserService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Incrementally maintained occupancy aggregates (migration V11) on an embedded Postgres. */
+public class OccupancyStatsIntegrationTest extends EmbeddedPostgresTest {
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private OccupancyStatsService occupancyStatsService;
+    @Autowired private ReservationService reservationService;
+    @Autowired private RoomService roomService;
+    @Autowired private UserService userService;
+
+    /** Standards no other test class uses, so their room counts and totals are this class's alone. */
+    private static final String STANDARD = "Economy";
+    private static final String DELUXE = "Executive";
+
+    private long userId;
+    private long standardRoomId;
+    private long secondStandardRoomId;
+    private long deluxeRoomId;
+
+    @BeforeAll
+    void seed() {
+        userId = userService.createUser(new UserRequestDTO("dashboard", "dashboard123", "USER")).getId();
+        standardRoomId = roomService.createRoom(new RoomRequestDTO("S1", STANDARD, 100)).getId();
+        secondStandardRoomId = roomService.createRoom(new RoomRequestDTO("S2", STANDARD, 120.5)).getId();
+        deluxeRoomId = roomService.createRoom(new RoomRequestDTO("D1", DELUXE, 300)).getId();
+    }
+
+    private List<Map<String, Object>> stored() {
+        return jdbcTemplate.queryForList("SELECT day, standard, booked_rooms, revenue FROM occupancy_daily WHERE booked_rooms <> 0 AND standard IN (?, ?) "
+                + "ORDER BY day, standard", STANDARD, DELUXE);
+    }
+
+    private static List<OccupancyDTO> ours(List<OccupancyDTO> days) {
+        return days.stream().filter(d -> d.getStandard().equals(STANDARD) || d.getStandard().equals(DELUXE)).toList();
+    }
+
+    private OccupancyDTO on(List<OccupancyDTO> days, LocalDate day, String standard) {
+        return days.stream().filter(d -> d.getDate().equals(day) && d.getStandard().equals(standard)).findFirst().orElseThrow();
+    }
+
+    @Test @DisplayName("creating, moving and cancelling bookings keeps the aggregates equal to a full rebuild")
+    void testIncrementalMatchesRebuild() {
+        LocalDate checkIn = LocalDate.now().plusDays(20);
+        long first = reservationService.createReservation(new ReservationRequestDTO(userId, standardRoomId, checkIn, checkIn.plusDays(3))).getId();
+        reservationService.createReservation(new ReservationRequestDTO(userId, secondStandardRoomId, checkIn.plusDays(1), checkIn.plusDays(2)));
+        long moved = reservationService.createReservation(new ReservationRequestDTO(userId, standardRoomId, checkIn.plusDays(5), checkIn.plusDays(7))).getId();
+        reservationService.updateReservation(moved, new ReservationRequestDTO(userId, deluxeRoomId, checkIn.plusDays(6), checkIn.plusDays(8)));
+        reservationService.deleteReservation(first);
+
+        List<Map<String, Object>> incremental = stored();
+        occupancyStatsService.rebuild();
+        assertEquals(stored(), incremental);
+        assertFalse(incremental.isEmpty());
+    }
+
+    @Test @DisplayName("every night and standard in the range is reported, with occupancy against the room count")
+    void testDenseReport() {
+        LocalDate checkIn = LocalDate.now().plusDays(60);
+        reservationService.createReservation(new ReservationRequestDTO(userId, standardRoomId, checkIn, checkIn.plusDays(2)));
+        reservationService.createReservation(new ReservationRequestDTO(userId, secondStandardRoomId, checkIn.plusDays(1), checkIn.plusDays(2)));
+
+        List<OccupancyDTO> days = ours(occupancyStatsService.getOccupancy(checkIn, checkIn.plusDays(3)));
+        assertEquals(6, days.size());
+
+        OccupancyDTO busiest = on(days, checkIn.plusDays(1), STANDARD);
+        assertEquals(2, busiest.getRooms());
+        assertEquals(2, busiest.getBookedRooms());
+        assertEquals(1.0, busiest.getOccupancy());
+        assertEquals(0, new BigDecimal("220.50").compareTo(busiest.getRevenue()));
+
+        OccupancyDTO empty = on(days, checkIn.plusDays(2), DELUXE);
+        assertEquals(0, empty.getBookedRooms());
+        assertEquals(0, BigDecimal.ZERO.compareTo(empty.getRevenue()));
+    }
+
+    @Test @DisplayName("a rejected booking leaves the aggregates untouched")
+    void testRolledBackBookingIsNotCounted() {
+        LocalDate checkIn = LocalDate.now().plusDays(90);
+        reservationService.createReservation(new ReservationRequestDTO(userId, deluxeRoomId, checkIn, checkIn.plusDays(1)));
+        assertThrows(RuntimeException.class,
+                () -> reservationService.createReservation(new ReservationRequestDTO(userId, deluxeRoomId, checkIn, checkIn.plusDays(1))));
+
+        assertEquals(1, on(occupancyStatsService.getOccupancy(checkIn, checkIn.plusDays(1)), checkIn, DELUXE).getBookedRooms());
+    }
+
+    @Test @DisplayName("a room changing standard and price between booking and cancelling nets back to zero")
+    void testRoomChangedWhileBooked() {
+        LocalDate checkIn = LocalDate.now().plusDays(120);
+        long roomId = roomService.createRoom(new RoomRequestDTO("S3", "Comfort", 80)).getId();
+        long id = reservationService.createReservation(new ReservationRequestDTO(userId, roomId, checkIn, checkIn.plusDays(2))).getId();
+
+        roomService.updateRoom(roomId, new RoomRequestDTO("S3", DELUXE, 310));
+        List<OccupancyDTO> moved = occupancyStatsService.getOccupancy(checkIn, checkIn.plusDays(1));
+        assertEquals(0, on(moved, checkIn, "Comfort").getBookedRooms());
+        assertEquals(1, on(moved, checkIn, DELUXE).getBookedRooms());
+        assertEquals(0, new BigDecimal("310").compareTo(on(moved, checkIn, DELUXE).getRevenue()));
+
+        jdbcTemplate.update("UPDATE rooms SET price = 290 WHERE id = ?", roomId);
+        assertEquals(0, new BigDecimal("290").compareTo(on(occupancyStatsService.getOccupancy(checkIn, checkIn.plusDays(1)), checkIn, DELUXE).getRevenue()));
+
+        reservationService.deleteReservation(id);
+        for (OccupancyDTO night : occupancyStatsService.getOccupancy(checkIn, checkIn.plusDays(2))) {
+            assertEquals(0, night.getBookedRooms(), night.getDate() + " " + night.getStandard());
+            assertEquals(0, BigDecimal.ZERO.compareTo(night.getRevenue()), night.getDate() + " " + night.getStandard());
+        }
+        List<Map<String, Object>> incremental = stored();
+        occupancyStatsService.rebuild();
+        assertEquals(stored(), incremental);
+    }
+}
\ No newline at end of file
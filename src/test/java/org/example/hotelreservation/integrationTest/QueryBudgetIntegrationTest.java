@@ -0,0 +1,86 @@
+package org.example.hotelreservation.integrationTest;
+
+import com.jayway.jsonpath.JsonPath;
+import org.example.hotelreservation.metrics.QueryCountHeaderAdvice;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Upper bounds on the SQL statements each list endpoint runs, read from the {@code X-Query-Count} header.
+ * The data set holds several users, rooms and reservations per page, so an N+1 pushes the count past its bound.
+ * Runs on an embedded Postgres, no Docker needed.
+ */
+@TestPropertySource(properties = "metrics.query-count-header=true")
+public class QueryBudgetIntegrationTest extends EmbeddedPostgresTest {
+    private static final int USERS = 8;
+    private static final LocalDate NIGHT = LocalDate.now().plusDays(10);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private long userId;
+
+    @BeforeAll
+    void seed() throws Exception {
+        for (int i = 0; i < USERS; i++) {
+            String user = mockMvc.perform(post("/api/users/register").with(user("admin").roles("ADMIN")).contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"username\":\"budget" + i + "\",\"password\":\"budget123\",\"role\":\"USER\"}"))
+                    .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+            userId = Long.parseLong(JsonPath.read(user, "$.id").toString());
+
+            String room = mockMvc.perform(post("/api/rooms").with(user("admin").roles("ADMIN")).contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"number\":\"Q" + i + "\",\"standard\":\"Standard\",\"price\":" + (100 + i) + "}"))
+                    .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+            long roomId = Long.parseLong(JsonPath.read(room, "$.id").toString());
+
+            for (int night = 0; night < 2; night++) {
+                mockMvc.perform(post("/api/reservations").with(user("admin").roles("ADMIN")).contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"userId\":" + userId + ",\"roomId\":" + roomId + ",\"date\":\"" + NIGHT.plusDays(night) + "\"}"))
+                        .andExpect(status().isOk());
+            }
+        }
+    }
+
+    /** Runs the request as admin and fails if it ran more than {@code budget} statements. */
+    private void assertQueries(int budget, MockHttpServletRequestBuilder request) throws Exception {
+        MockHttpServletRequest sent = request.buildRequest(new MockServletContext());
+        String header = mockMvc.perform(request.with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(QueryCountHeaderAdvice.HEADER);
+        assertNotNull(header, "no " + QueryCountHeaderAdvice.HEADER + " header");
+        int queries = Integer.parseInt(header);
+        assertTrue(queries <= budget, sent.getRequestURI() + " ran " + queries + " statements, budget " + budget);
+    }
+
+    @Test @DisplayName("reservation lists run a constant number of statements")
+    void testReservationLists() throws Exception {
+        assertQueries(1, get("/api/reservations"));
+        assertQueries(1, get("/api/reservations/user/" + userId));
+        assertQueries(1, get("/api/reservations/date").param("date", NIGHT.toString()));
+    }
+
+    @Test @DisplayName("user lists run a constant number of statements")
+    void testUserLists() throws Exception {
+        assertQueries(2, get("/api/users"));
+    }
+
+    @Test @DisplayName("room lists are served without touching the database")
+    void testRoomLists() throws Exception {
+        assertQueries(0, get("/api/rooms"));
+        assertQueries(0, get("/api/rooms/search").param("standard", "Standard"));
+        assertQueries(0, get("/api/rooms/available").param("from", NIGHT.toString()).param("to", NIGHT.plusDays(1).toString()));
+    }
+}
\ No newline at end of file
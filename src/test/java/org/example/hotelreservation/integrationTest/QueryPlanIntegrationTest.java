@@ -0,0 +1,86 @@
+package org.example.hotelreservation.integrationTest;
+
+import org.example.hotelreservation.repository.ReservationRepository;
+import org.example.hotelreservation.repository.UserRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the selective repository queries against a seeded, analyzed database and fails if any of them made
+ * Postgres scan a table sequentially, read from {@code pg_stat_xact_user_tables} inside the same transaction.
+ * Tables of at most one page (e.g. reservation partitions holding a few stays of other test classes) are ignored,
+ * since reading that page is the right plan there. Full reads by design (room catalog, export stream, the
+ * availability index load of all upcoming stays) are not covered.
+ */
+public class QueryPlanIntegrationTest extends EmbeddedPostgresTest {
+    private static final int ROOMS = 2000;
+    private static final int USERS = 5000;
+    private static final int STAYS_PER_ROOM = 40;
+
+    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private final LocalDate today = LocalDate.now();
+    private long userId;
+    private long roomId;
+
+    /** Mostly history: each room has a stay every four days, the last ones ending about ten days from now. */
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO rooms (number, price, standard) SELECT 'QP' || n, 50 + n % 200, "
+                + "CASE WHEN n % 100 = 0 THEN 'Penthouse' WHEN n % 2 = 0 THEN 'Deluxe' ELSE 'Standard' END FROM generate_series(1, ?) n", ROOMS);
+        jdbcTemplate.update("INSERT INTO users (username, password, role) SELECT 'plan' || n, 'x', 'USER' FROM generate_series(1, ?) n", USERS);
+        jdbcTemplate.update("""
+                INSERT INTO reservations (date, check_out, room_id, user_id)
+                SELECT CURRENT_DATE - ? + k * 4 + 1, CURRENT_DATE - ? + k * 4 + 2 + (k % 3), r.id, u.id
+                FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM rooms WHERE number LIKE 'QP%') r
+                CROSS JOIN generate_series(0, ? - 1) k
+                JOIN (SELECT id, row_number() OVER (ORDER BY id) - 1 AS un FROM users WHERE username LIKE 'plan%') u ON u.un = (r.rn * 31 + k) % ?""",
+                STAYS_PER_ROOM * 4 - 10, STAYS_PER_ROOM * 4 - 10, STAYS_PER_ROOM, USERS);
+        jdbcTemplate.execute("VACUUM ANALYZE");
+        roomId = jdbcTemplate.queryForObject("SELECT min(id) FROM rooms WHERE number LIKE 'QP%'", Long.class);
+        userId = jdbcTemplate.queryForObject("SELECT user_id FROM reservations WHERE room_id = ? ORDER BY id LIMIT 1", Long.class, roomId);
+    }
+
+    private void assertNoSequentialScan(String name, Runnable query) {
+        transactionTemplate.executeWithoutResult(status -> {
+            query.run();
+            List<String> scanned = jdbcTemplate.queryForList("SELECT s.relname FROM pg_stat_xact_user_tables s JOIN pg_class c ON c.oid = s.relid "
+                    + "WHERE s.seq_scan > 0 AND c.relpages > 1", String.class);
+            assertTrue(scanned.isEmpty(), name + " scanned " + scanned + " sequentially");
+        });
+    }
+
+    @Test @DisplayName("reservation lookups use an index")
+    void testReservationQueries() {
+        List<Long> users = List.of(userId, userId + 1, userId + 2);
+        assertNoSequentialScan("findResponsesByDate", () -> reservationRepository.findResponsesByDate(today));
+        assertNoSequentialScan("findResponsesByDateAndUserId", () -> reservationRepository.findResponsesByDateAndUserId(today, userId));
+        assertNoSequentialScan("findResponsesAfter", () -> reservationRepository.findResponsesAfter(0L, Limit.of(100)));
+        assertNoSequentialScan("findResponsesByUserIdAfter", () -> reservationRepository.findResponsesByUserIdAfter(userId, 0L, Limit.of(100)));
+        assertNoSequentialScan("findIdsByUserId", () -> reservationRepository.findIdsByUserId(userId));
+        assertNoSequentialScan("findIdsByUserIdIn", () -> reservationRepository.findIdsByUserIdIn(users));
+        assertNoSequentialScan("findBookedStaysByRoomFrom", () -> reservationRepository.findBookedStaysByRoomFrom(roomId, today));
+    }
+
+    @Test @DisplayName("user lookups use an index")
+    void testUserQueries() {
+        assertNoSequentialScan("findPrincipalByUsername", () -> userRepository.findPrincipalByUsername("plan42"));
+        assertNoSequentialScan("findByUsername", () -> userRepository.findByUsername("plan42"));
+        assertNoSequentialScan("findSummaryById", () -> userRepository.findSummaryById(userId));
+        assertNoSequentialScan("findSummaryByUsername", () -> userRepository.findSummaryByUsername("plan42"));
+        assertNoSequentialScan("findSummariesAfter", () -> userRepository.findSummariesAfter(0L, Limit.of(100)));
+        assertNoSequentialScan("findByIdGreaterThanOrderByIdAsc", () -> userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(100)));
+        assertNoSequentialScan("findExistingIds", () -> userRepository.findExistingIds(List.of(userId, userId + 1)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,151 @@
+package org.example.hotelreservation.integrationTest;
+
+import com.jayway.jsonpath.JsonPath;
+import org.example.hotelreservation.controller.Pagination;
+import org.example.hotelreservation.dto.ReservationRequestDTO;
+import org.example.hotelreservation.dto.RoomRequestDTO;
+import org.example.hotelreservation.dto.UserRequestDTO;
+import org.example.hotelreservation.service.ReservationChangeFeed;
+import org.example.hotelreservation.service.ReservationService;
+import org.example.hotelreservation.service.RoomService;
+import org.example.hotelreservation.service.UserService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/** The reservation change feed ({@code GET /api/reservations/changes}) on an embedded Postgres. */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ReservationChangeFeedIntegrationTest extends EmbeddedPostgresTest {
+    @Autowired private MockMvc mockMvc;
+    @Autowired private DataSource dataSource;
+    @Autowired private ReservationChangeFeed changeFeed;
+    @Autowired private ReservationService reservationService;
+    @Autowired private RoomService roomService;
+    @Autowired private UserService userService;
+
+    private long userId;
+    private long roomId;
+    private LocalDate nextNight = LocalDate.now().plusDays(5);
+
+    @BeforeAll
+    void seed() {
+        userId = userService.createUser(new UserRequestDTO("channel", "channel123", "USER")).getId();
+        roomId = roomService.createRoom(new RoomRequestDTO("C1", "Standard", 100)).getId();
+    }
+
+    private long book() {
+        LocalDate night = nextNight;
+        nextNight = nextNight.plusDays(1);
+        return reservationService.createReservation(new ReservationRequestDTO(userId, roomId, night, night.plusDays(1))).getId();
+    }
+
+    private record Page(List<Integer> reservationIds, String next) {}
+
+    private Page changes(String since, Integer size) throws Exception {
+        var request = get("/api/reservations/changes").with(user("admin").roles("ADMIN"));
+        if (since != null) { request.param("since", since); }
+        if (size != null) { request.param("size", size.toString()); }
+        MvcResult started = mockMvc.perform(request).andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+        return page(result);
+    }
+
+    /** The cursor after every change so far, including those of other test classes sharing the database. */
+    private String head() { return changeFeed.head().encode(); }
+
+    private static Page page(MvcResult result) throws Exception {
+        List<Integer> ids = JsonPath.read(result.getResponse().getContentAsString(), "$[*].reservationId");
+        return new Page(ids, result.getResponse().getHeader(Pagination.NEXT_CURSOR));
+    }
+
+    @Test @Order(1) @DisplayName("the feed returns each change once, in order, resuming from the cursor")
+    void testResume() throws Exception {
+        String start = head();
+        long first = book();
+        long second = book();
+
+        Page page = changes(start, 1);
+        assertEquals(List.of((int) first), page.reservationIds());
+        page = changes(page.next(), null);
+        assertEquals(List.of((int) second), page.reservationIds());
+
+        Page empty = changes(page.next(), null);
+        assertTrue(empty.reservationIds().isEmpty());
+        assertEquals(page.next(), empty.next());
+
+        long third = book();
+        reservationService.deleteReservation(first);
+        assertEquals(List.of((int) third, (int) first), changes(empty.next(), null).reservationIds());
+    }
+
+    @Test @Order(2) @DisplayName("a change committed late is not skipped by a cursor handed out in the meantime")
+    void testLateCommit() throws Exception {
+        String cursor = head();
+        try (Connection slow = dataSource.getConnection()) {
+            slow.setAutoCommit(false);
+            try (PreparedStatement append = slow.prepareStatement(
+                    "INSERT INTO reservation_events (reservation_id, type, user_id, room_id, check_in, check_out) VALUES (999999, 'CREATED', ?, ?, ?, ?)")) {
+                append.setLong(1, userId);
+                append.setLong(2, roomId);
+                append.setObject(3, LocalDate.now().plusYears(1));
+                append.setObject(4, LocalDate.now().plusYears(1).plusDays(1));
+                append.executeUpdate();
+            }
+            long booked = book();
+
+            Page whileOpen = changes(cursor, null);
+            assertTrue(whileOpen.reservationIds().isEmpty(), "served a change while an older transaction was still open");
+            slow.commit();
+
+            assertEquals(List.of(999999, (int) booked), changes(whileOpen.next(), null).reservationIds());
+        }
+    }
+
+    @Test @Order(3) @DisplayName("a long poll answers as soon as a change arrives")
+    void testLongPoll() throws Exception {
+        String cursor = head();
+        MvcResult waiting = mockMvc.perform(get("/api/reservations/changes").param("since", cursor).param("wait", "10")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(request().asyncStarted()).andReturn();
+        long booked = book();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(waiting)).andExpect(status().isOk()).andReturn();
+        assertEquals(List.of((int) booked), page(result).reservationIds());
+    }
+
+    @Test @Order(4) @DisplayName("long polls parked on the same cursor are answered together, each within its own size")
+    void testSharedLongPoll() throws Exception {
+        String cursor = head();
+        MvcResult one = mockMvc.perform(get("/api/reservations/changes").param("since", cursor).param("size", "1").param("wait", "10")
+                .with(user("admin").roles("ADMIN"))).andExpect(request().asyncStarted()).andReturn();
+        MvcResult all = mockMvc.perform(get("/api/reservations/changes").param("since", cursor).param("wait", "10")
+                .with(user("admin").roles("ADMIN"))).andExpect(request().asyncStarted()).andReturn();
+        long first = book();
+        long second = book();
+
+        Page upToOne = page(mockMvc.perform(asyncDispatch(one)).andExpect(status().isOk()).andReturn());
+        Page upToDefault = page(mockMvc.perform(asyncDispatch(all)).andExpect(status().isOk()).andReturn());
+        assertEquals(List.of((int) first), upToOne.reservationIds());
+        assertEquals((int) first, upToDefault.reservationIds().getFirst());
+        assertEquals(List.of((int) second), changes(upToOne.next(), null).reservationIds());
+    }
+
+    @Test @Order(5) @DisplayName("only admins read the feed, and bad cursors are rejected")
+    void testAccess() throws Exception {
+        mockMvc.perform(get("/api/reservations/changes").with(user("channel").roles("USER"))).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/reservations/changes").param("since", "bm90LWEtY3Vyc29y").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isBadRequest());
+    }
+}
\ No newline at end of file
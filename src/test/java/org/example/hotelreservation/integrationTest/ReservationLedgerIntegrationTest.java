@@ -0,0 +1,169 @@
+package org.example.hotelreservation.integrationTest;
+
+import org.example.hotelreservation.dto.PageDTO;
+import org.example.hotelreservation.dto.ReservationEventDTO;
+import org.example.hotelreservation.dto.ReservationRequestDTO;
+import org.example.hotelreservation.dto.ReservationResponseDTO;
+import org.example.hotelreservation.dto.RoomRequestDTO;
+import org.example.hotelreservation.dto.UserRequestDTO;
+import org.example.hotelreservation.service.*;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The append-only reservation ledger (migration V12) and state derived from it, on an embedded Postgres. */
+public class ReservationLedgerIntegrationTest extends EmbeddedPostgresTest {
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ReservationLedger ledger;
+    @Autowired private ReservationProjector projector;
+    @Autowired private RoomAvailabilityIndex availabilityIndex;
+    @Autowired private ReservationService reservationService;
+    @Autowired private RoomService roomService;
+    @Autowired private UserService userService;
+
+    private long userId;
+    private long roomId;
+    private long otherRoomId;
+
+    @BeforeAll
+    void seed() {
+        userId = userService.createUser(new UserRequestDTO("audited", "audited123", "USER")).getId();
+        roomId = roomService.createRoom(new RoomRequestDTO("L1", "Standard", 100)).getId();
+        otherRoomId = roomService.createRoom(new RoomRequestDTO("L2", "Deluxe", 200)).getId();
+    }
+
+    private OffsetDateTime databaseNow() {
+        return jdbcTemplate.queryForObject("SELECT clock_timestamp()", OffsetDateTime.class);
+    }
+
+    @Test @DisplayName("every change of a reservation is appended, and the log cannot be rewritten")
+    void testHistory() {
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        long id = reservationService.createReservation(new ReservationRequestDTO(userId, roomId, checkIn, checkIn.plusDays(2))).getId();
+        reservationService.updateReservation(id, new ReservationRequestDTO(userId, otherRoomId, checkIn.plusDays(1), checkIn.plusDays(4)));
+        reservationService.deleteReservation(id);
+
+        List<ReservationEventDTO> history = ledger.history(id);
+        assertEquals(List.of("CREATED", "MOVED", "CANCELLED"), history.stream().map(ReservationEventDTO::getType).toList());
+        assertEquals(otherRoomId, history.get(1).getRoomId());
+        assertEquals(checkIn.plusDays(4), history.get(2).getCheckOut());
+        assertTrue(history.get(0).getSeq() < history.get(1).getSeq() && history.get(1).getSeq() < history.get(2).getSeq());
+
+        assertThrows(RuntimeException.class, () -> jdbcTemplate.update("UPDATE reservation_events SET room_id = ? WHERE reservation_id = ?", roomId, id));
+        assertThrows(RuntimeException.class, () -> jdbcTemplate.update("DELETE FROM reservation_events WHERE reservation_id = ?", id));
+    }
+
+    @Test @DisplayName("the state at an earlier time is reconstructed from a snapshot and the events after it")
+    void testPointInTime() {
+        LocalDate checkIn = LocalDate.now().plusDays(40);
+        long id = reservationService.createReservation(new ReservationRequestDTO(userId, roomId, checkIn, checkIn.plusDays(1))).getId();
+        projector.snapshot();
+        OffsetDateTime booked = databaseNow();
+        reservationService.updateReservation(id, new ReservationRequestDTO(userId, roomId, checkIn.plusDays(3), checkIn.plusDays(5)));
+        OffsetDateTime moved = databaseNow();
+        reservationService.deleteReservation(id);
+
+        ReservationResponseDTO then = projector.stateAt(booked, id - 1, 1).getItems().getFirst();
+        assertEquals(id, then.getId());
+        assertEquals(checkIn, then.getDate());
+        assertEquals(checkIn.plusDays(3), projector.stateAt(moved, id - 1, 1).getItems().getFirst().getDate());
+        assertTrue(projector.stateAt(databaseNow(), id - 1, 1).getItems().stream().noneMatch(r -> r.getId() == id));
+    }
+
+    @Test @DisplayName("the state is read page by page, and a page whose reservations were cancelled by then comes back short")
+    void testPagedState() {
+        LocalDate checkIn = LocalDate.now().plusDays(130);
+        long first = reservationService.createReservation(new ReservationRequestDTO(userId, roomId, checkIn, checkIn.plusDays(1))).getId();
+        long cancelled = reservationService.createReservation(new ReservationRequestDTO(userId, roomId, checkIn.plusDays(2), checkIn.plusDays(3))).getId();
+        long last = reservationService.createReservation(new ReservationRequestDTO(userId, roomId, checkIn.plusDays(4), checkIn.plusDays(5))).getId();
+        reservationService.deleteReservation(cancelled);
+        OffsetDateTime now = databaseNow();
+
+        List<Long> ids = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        PageDTO<ReservationResponseDTO> page = projector.stateAt(now, first - 1, 1);
+        while (page.getNextAfter() != null && page.getNextAfter() < last) {
+            page.getItems().forEach(r -> ids.add(r.getId()));
+            pageSizes.add(page.getItems().size());
+            page = projector.stateAt(now, page.getNextAfter(), 1);
+        }
+        page.getItems().forEach(r -> ids.add(r.getId()));
+        assertEquals(List.of(first, last), ids);
+        assertEquals(List.of(1, 0), pageSizes);
+    }
+
+    @Test @DisplayName("instances taking the nightly snapshot at once store it only once")
+    void testConcurrentSnapshots() throws Exception {
+        LocalDate checkIn = LocalDate.now().plusDays(160);
+        reservationService.createReservation(new ReservationRequestDTO(userId, otherRoomId, checkIn, checkIn.plusDays(1)));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> one = executor.submit(projector::snapshot);
+            Future<Long> other = executor.submit(projector::snapshot);
+            long head = one.get(10, TimeUnit.SECONDS);
+            assertEquals(head, other.get(10, TimeUnit.SECONDS));
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM reservation_snapshots WHERE seq = ?", Integer.class, head));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test @DisplayName("a rebuild restores the reservations table and the availability index from the ledger")
+    void testRebuild() {
+        LocalDate checkIn = LocalDate.now().plusDays(70);
+        long id = reservationService.createReservation(new ReservationRequestDTO(userId, roomId, checkIn, checkIn.plusDays(2))).getId();
+        projector.snapshot();
+        long later = reservationService.createReservation(new ReservationRequestDTO(userId, otherRoomId, checkIn, checkIn.plusDays(1))).getId();
+        jdbcTemplate.update("DELETE FROM reservations WHERE id IN (?, ?)", id, later);
+        int written = projector.rebuild();
+
+        assertEquals(written, jdbcTemplate.queryForObject("SELECT count(*) FROM reservations", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT count(*) FROM reservations WHERE id IN (?, ?)", Integer.class, id, later));
+        assertThrows(BookingConflictException.class,
+                () -> reservationService.createReservation(new ReservationRequestDTO(userId, roomId, checkIn.plusDays(1), checkIn.plusDays(2))));
+    }
+
+    /** Waits until the availability index reports {@code night} of the room as {@code booked}. */
+    private void awaitBooked(long room, LocalDate night, boolean booked) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (availabilityIndex.isBooked(room, night) != booked) {
+            if (System.currentTimeMillis() > deadline) { fail("room " + room + " still " + (booked ? "free" : "booked") + " on " + night); }
+            Thread.sleep(20);
+        }
+    }
+
+    private void appendElsewhere(long reservationId, String type, long room, LocalDate checkIn, LocalDate checkOut) {
+        jdbcTemplate.update("INSERT INTO reservation_events (reservation_id, type, user_id, room_id, check_in, check_out) VALUES (?, ?, ?, ?, ?, ?)",
+                reservationId, type, userId, room, checkIn, checkOut);
+    }
+
+    @Test @DisplayName("the availability index follows stays booked, moved and cancelled by another instance")
+    void testChangesElsewhere() throws Exception {
+        LocalDate checkIn = LocalDate.now().plusDays(100);
+        long id = jdbcTemplate.queryForObject("INSERT INTO reservations (user_id, room_id, date, check_out) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, userId, roomId, checkIn, checkIn.plusDays(2));
+        appendElsewhere(id, "CREATED", roomId, checkIn, checkIn.plusDays(2));
+        awaitBooked(roomId, checkIn.plusDays(1), true);
+
+        jdbcTemplate.update("UPDATE reservations SET room_id = ?, date = ?, check_out = ? WHERE id = ?", otherRoomId, checkIn.plusDays(5), checkIn.plusDays(6), id);
+        appendElsewhere(id, "MOVED", otherRoomId, checkIn.plusDays(5), checkIn.plusDays(6));
+        awaitBooked(otherRoomId, checkIn.plusDays(5), true);
+        awaitBooked(roomId, checkIn, false);
+        reservationService.createReservation(new ReservationRequestDTO(userId, roomId, checkIn, checkIn.plusDays(2)));
+
+        jdbcTemplate.update("DELETE FROM reservations WHERE id = ?", id);
+        appendElsewhere(id, "CANCELLED", otherRoomId, checkIn.plusDays(5), checkIn.plusDays(6));
+        awaitBooked(otherRoomId, checkIn.plusDays(5), false);
+    }
+}
\ No newline at end of file
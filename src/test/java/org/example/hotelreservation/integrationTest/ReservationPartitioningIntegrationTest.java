@@ -0,0 +1,150 @@
+package org.example.hotelreservation.integrationTest;
+
+import org.example.hotelreservation.dto.ReservationRequestDTO;
+import org.example.hotelreservation.dto.RoomRequestDTO;
+import org.example.hotelreservation.dto.UserRequestDTO;
+import org.example.hotelreservation.service.BookingConflictException;
+import org.example.hotelreservation.service.ReservationPartitionMaintainer;
+import org.example.hotelreservation.service.ReservationService;
+import org.example.hotelreservation.service.RoomService;
+import org.example.hotelreservation.service.UserService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Monthly partitioning of reservations (migrations V10 and V14) on an embedded Postgres. */
+public class ReservationPartitioningIntegrationTest extends EmbeddedPostgresTest {
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Autowired private DataSource dataSource;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ReservationService reservationService;
+    @Autowired private ReservationPartitionMaintainer maintainer;
+    @Autowired private RoomService roomService;
+    @Autowired private UserService userService;
+
+    private long userId;
+    private long roomId;
+
+    @BeforeAll
+    void seed() {
+        userId = userService.createUser(new UserRequestDTO("partitioned", "partitioned123", "USER")).getId();
+        roomId = roomService.createRoom(new RoomRequestDTO("M1", "Standard", 100)).getId();
+    }
+
+    private String partitionOf(long reservationId) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM reservations WHERE id = ?", String.class, reservationId);
+    }
+
+    /** Inserts around the application, so neither the availability index nor the booking locks see the row. */
+    private long insert(LocalDate checkIn, LocalDate checkOut) {
+        return jdbcTemplate.queryForObject("INSERT INTO reservations (date, check_out, room_id, user_id) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, checkIn, checkOut, roomId, userId);
+    }
+
+    @Test @DisplayName("a booking lands in the partition of its check-in month")
+    void testRouting() {
+        LocalDate checkIn = LocalDate.now().plusMonths(2).withDayOfMonth(10);
+        long id = reservationService.createReservation(new ReservationRequestDTO(userId, roomId, checkIn, checkIn.plusDays(2))).getId();
+        assertEquals("reservations_" + checkIn.format(MONTH), partitionOf(id));
+    }
+
+    @Test @DisplayName("overlapping stays in different partitions are rejected as a booking conflict")
+    void testOverlapAcrossPartitions() {
+        LocalDate monthEnd = LocalDate.now().plusMonths(4).withDayOfMonth(1).minusDays(1);
+        insert(monthEnd.minusDays(1), monthEnd.plusDays(3));
+
+        LocalDate nextMonth = monthEnd.plusDays(1);
+        assertThrows(DataIntegrityViolationException.class, () -> insert(nextMonth, nextMonth.plusDays(1)));
+        assertThrows(BookingConflictException.class,
+                () -> reservationService.createReservation(new ReservationRequestDTO(userId, roomId, nextMonth.plusDays(1), nextMonth.plusDays(4))));
+        assertDoesNotThrow(() -> insert(nextMonth.plusDays(2), nextMonth.plusDays(4)));
+    }
+
+    @Test @DisplayName("the overlap check holds for replica sessions and is refused under REPEATABLE READ")
+    void testOverlapCheckCannotBeSkipped() {
+        LocalDate checkIn = LocalDate.now().plusMonths(6).withDayOfMonth(10);
+        insert(checkIn, checkIn.plusDays(3));
+
+        TransactionTemplate replica = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        assertThrows(DataIntegrityViolationException.class, () -> replica.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SET LOCAL session_replication_role = replica");
+            insert(checkIn.plusDays(1), checkIn.plusDays(2));
+        }));
+
+        TransactionTemplate repeatableRead = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        repeatableRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        var refused = assertThrows(DataAccessException.class,
+                () -> repeatableRead.executeWithoutResult(status -> insert(checkIn.plusDays(5), checkIn.plusDays(6))));
+        assertTrue(refused.getMessage().contains("REPEATABLE READ"));
+    }
+
+    @Test @DisplayName("stays booked before their month had a partition move into it once it is created")
+    void testDefaultPartitionDrain() {
+        LocalDate checkIn = LocalDate.now().plusMonths(30).withDayOfMonth(5);
+        long id = insert(checkIn, checkIn.plusDays(1));
+        assertEquals("reservations_default", partitionOf(id));
+
+        assertTrue(jdbcTemplate.queryForObject("SELECT reservations_create_partition(?)", Boolean.class, checkIn));
+        assertEquals("reservations_" + checkIn.format(MONTH), partitionOf(id));
+    }
+
+    @Test @DisplayName("months past the archive cutoff leave the hot table")
+    void testArchive() {
+        LocalDate checkIn = LocalDate.now().minusMonths(30).withDayOfMonth(5);
+        jdbcTemplate.queryForObject("SELECT reservations_create_partition(?)", Boolean.class, checkIn);
+        long id = insert(checkIn, checkIn.plusDays(2));
+
+        maintainer.maintain();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM reservations WHERE id = ?", Integer.class, id));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM reservations_archive WHERE id = ?", Integer.class, id));
+        assertEquals("reservations_archive", jdbcTemplate.queryForObject("SELECT inhparent::regclass::text FROM pg_inherits WHERE inhrelid = ?::regclass",
+                String.class, "reservations_" + checkIn.format(MONTH)));
+    }
+
+    @Test @DisplayName("maintenance started on several instances at once creates a missing month exactly once")
+    void testConcurrentMaintenance() throws Exception {
+        String last = "reservations_" + LocalDate.now().plusMonths(12).format(MONTH);
+        jdbcTemplate.execute("ALTER TABLE reservations DETACH PARTITION " + last);
+        jdbcTemplate.execute("DROP TABLE " + last);
+
+        ExecutorService instances = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int i = 0; i < 4; i++) { runs.add(instances.submit(maintainer::maintain)); }
+            for (Future<?> run : runs) { run.get(30, TimeUnit.SECONDS); }
+        } finally {
+            instances.shutdownNow();
+        }
+        assertEquals("reservations", jdbcTemplate.queryForObject("SELECT inhparent::regclass::text FROM pg_inherits WHERE inhrelid = ?::regclass", String.class, last));
+    }
+
+    @Test @DisplayName("by-night queries only touch the partitions a stay could have started in")
+    void testPruning() {
+        LocalDate night = LocalDate.now();
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN SELECT id FROM reservations WHERE date > ? AND date <= ? AND check_out > ?",
+                String.class, night.minusDays(90), night, night);
+        String text = String.join("\n", plan);
+        assertTrue(text.contains("reservations_" + night.format(MONTH)), text);
+        assertFalse(text.contains("reservations_" + night.minusMonths(6).format(MONTH)), text);
+        assertFalse(text.contains("reservations_" + night.plusMonths(1).format(MONTH)), text);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package org.example.hotelreservation.integrationTest;
+
+import org.example.hotelreservation.dto.RoomRequestDTO;
+import org.example.hotelreservation.service.RoomCatalog;
+import org.example.hotelreservation.service.RoomCatalog.CatalogRoom;
+import org.example.hotelreservation.service.RoomService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The room catalog following room writes it did not make itself, on an embedded Postgres. */
+public class RoomCatalogIntegrationTest extends EmbeddedPostgresTest {
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private RoomCatalog roomCatalog;
+    @Autowired private RoomService roomService;
+
+    /** Waits until the catalog's entry for {@code roomId} satisfies {@code expected}. */
+    private void awaitRoom(long roomId, Predicate<Optional<CatalogRoom>> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!expected.test(roomCatalog.find(roomId))) {
+            if (System.currentTimeMillis() > deadline) { fail("catalog still holds " + roomCatalog.find(roomId) + " for room " + roomId); }
+            Thread.sleep(20);
+        }
+    }
+
+    @Test @DisplayName("rooms written by another instance or plain SQL reach the catalog on its next refresh")
+    void testWritesElsewhere() throws Exception {
+        long added = jdbcTemplate.queryForObject("INSERT INTO rooms (number, standard, price) VALUES ('K1', 'Suite', 300) RETURNING id", Long.class);
+        awaitRoom(added, Optional::isPresent);
+
+        long existing = roomService.createRoom(new RoomRequestDTO("K2", "Standard", 100)).getId();
+        jdbcTemplate.update("UPDATE rooms SET price = 120, standard = 'Deluxe' WHERE id = ?", existing);
+        awaitRoom(existing, room -> room.map(r -> r.price() == 120 && r.standard().equals("Deluxe")).orElse(false));
+        assertTrue(roomCatalog.cheapestFirst("Deluxe", null).stream().anyMatch(r -> r.id() == existing));
+
+        jdbcTemplate.update("DELETE FROM rooms WHERE id = ?", added);
+        awaitRoom(added, Optional::isEmpty);
+    }
+}
\ No newline at end of file
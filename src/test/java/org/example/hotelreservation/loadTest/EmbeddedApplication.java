@@ -0,0 +1,52 @@
+package org.example.hotelreservation.loadTest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.example.hotelreservation.HotelReservationApplication;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+/**
+ * The application on an embedded Postgres, no Docker needed. The schema is migrated on construction so the
+ * database can be seeded through {@link #dataSource()} before {@link #boot()} loads the in-memory indexes.
+ */
+public class EmbeddedApplication implements AutoCloseable {
+    private final EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+
+    public EmbeddedApplication() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(dataSource()).locations("classpath:db/migration").load().migrate();
+    }
+
+    public DataSource dataSource() { return postgres.getPostgresDatabase(); }
+
+    /** Starts the application on a random port; extra {@code --key=value} arguments override the defaults. */
+    public ConfigurableApplicationContext boot(String... args) {
+        String[] defaults = {
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--logging.level.root=WARN"
+        };
+        String[] all = new String[defaults.length + args.length];
+        System.arraycopy(defaults, 0, all, 0, defaults.length);
+        System.arraycopy(args, 0, all, defaults.length, args.length);
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(HotelReservationApplication.class).run(all);
+        return context;
+    }
+
+    public String baseUrl() { return "http://localhost:" + context.getEnvironment().getProperty("local.server.port"); }
+
+    @Override
+    public void close() throws IOException {
+        if (context != null) { context.close(); }
+        postgres.close();
+    }
+}
\ No newline at end of file
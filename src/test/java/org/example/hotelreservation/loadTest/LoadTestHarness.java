@@ -0,0 +1,39 @@
+package org.example.hotelreservation.loadTest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * End-to-end load test without Docker: seeds an embedded Postgres, boots the application on it and runs
+ * {@link ReservationLoadDriver} against it. See "Load testing" in the README.
+ *
+ * <p>System properties: {@code loadtest.rooms} (2000), {@code loadtest.users} (1000), {@code loadtest.reservations}
+ * (200000), {@code loadtest.concurrency} (200), {@code loadtest.duration} (PT60S), {@code loadtest.histograms}
+ * (target/loadtest) and {@code loadtest.profiles} to activate Spring profiles, e.g. {@code virtual}.
+ */
+public class LoadTestHarness {
+    public static void main(String[] args) throws Exception {
+        int rooms = Integer.getInteger("loadtest.rooms", 2000);
+        int users = Integer.getInteger("loadtest.users", 1000);
+        int reservations = Integer.getInteger("loadtest.reservations", 200_000);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+
+        try (EmbeddedApplication app = new EmbeddedApplication()) {
+            long seeding = System.nanoTime();
+            LoadTestSeeder.Seed seed = LoadTestSeeder.seed(app.dataSource(), rooms, users, reservations);
+            System.out.printf("Seeded %d rooms, %d users, %d reservations per room in %.1f s%n",
+                    seed.roomIds().size(), seed.guests().size(), Math.max(1, reservations / rooms), (System.nanoTime() - seeding) / 1e9);
+
+            app.boot("--spring.profiles.active=" + System.getProperty("loadtest.profiles", "default"),
+                    "--logging.level.org.springframework.web.servlet.mvc.support=ERROR",
+                    "--logging.level.org.springframework.web.servlet.mvc.annotation=ERROR");
+            ReservationLoadDriver driver = new ReservationLoadDriver(app.baseUrl(), seed.guests(), seed.roomIds());
+            driver.warmUp();
+            System.out.printf("Driving %s with %d workers for %s%n", app.baseUrl(), concurrency, duration);
+            double seconds = driver.run(concurrency, duration);
+            driver.report(seconds, System.out);
+            driver.writeHistograms(Path.of(System.getProperty("loadtest.histograms", "target/loadtest")));
+        }
+    }
+}
\ No newline at end of file
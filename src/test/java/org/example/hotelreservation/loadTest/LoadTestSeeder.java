@@ -0,0 +1,83 @@
+package org.example.hotelreservation.loadTest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills an empty schema with rooms, users ({@code guest<n>} / {@link #PASSWORD}) and reservations using
+ * set-based inserts. Each room gets an equal share of reservations, one stay of 1-3 nights every four days
+ * starting 180 days ago, so the seeded calendar has no overlaps and bookings near today conflict at a steady rate.
+ * Every reservation is also appended to the ledger, as a booking through the application would be, so rebuilds,
+ * the change feed and the ETags of every instance see it.
+ */
+public final class LoadTestSeeder {
+    public static final String PASSWORD = "guest123";
+
+    public record Guest(long id, String username, String password) { }
+
+    public record Seed(List<Guest> guests, List<Long> roomIds) { }
+
+    private LoadTestSeeder() { }
+
+    public static Seed seed(DataSource dataSource, int rooms, int users, int reservations) throws SQLException {
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        int perRoom = Math.max(1, reservations / Math.max(1, rooms));
+        try (Connection c = dataSource.getConnection()) {
+            try (PreparedStatement insertRooms = c.prepareStatement("""
+                    INSERT INTO rooms (number, price, standard)
+                    SELECT 'R' || n, 80 + n % 120, CASE n % 3 WHEN 0 THEN 'Deluxe' ELSE 'Standard' END
+                    FROM generate_series(1, ?) n""")) {
+                insertRooms.setInt(1, rooms);
+                insertRooms.executeUpdate();
+            }
+            try (PreparedStatement insertUsers = c.prepareStatement("""
+                    INSERT INTO users (username, password, role)
+                    SELECT 'guest' || n, ?, 'USER' FROM generate_series(1, ?) n""")) {
+                insertUsers.setString(1, hash);
+                insertUsers.setInt(2, users);
+                insertUsers.executeUpdate();
+            }
+            try (PreparedStatement insertReservations = c.prepareStatement("""
+                    WITH r AS (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM rooms),
+                         u AS (SELECT id, row_number() OVER (ORDER BY id) - 1 AS un FROM users WHERE username LIKE 'guest%'),
+                         s AS (SELECT r.id AS room_id, r.rn, k, CURRENT_DATE - 180 + k * 4 + (r.rn % 2)::int AS night
+                               FROM r CROSS JOIN generate_series(0, ? - 1) k),
+                         booked AS (INSERT INTO reservations (date, check_out, room_id, user_id)
+                                    SELECT s.night, s.night + 1 + ((s.rn + s.k) % 3)::int, s.room_id, u.id
+                                    FROM s JOIN u ON u.un = (s.rn * 31 + s.k) % ?
+                                    RETURNING id, user_id, room_id, date, check_out)
+                    INSERT INTO reservation_events (reservation_id, type, user_id, room_id, check_in, check_out)
+                    SELECT id, 'CREATED', user_id, room_id, date, check_out FROM booked ORDER BY id""")) {
+                insertReservations.setInt(1, perRoom);
+                insertReservations.setInt(2, users);
+                insertReservations.executeUpdate();
+            }
+            try (Statement analyze = c.createStatement()) { analyze.execute("ANALYZE"); }
+            return new Seed(guests(c), ids(c, "SELECT id FROM rooms ORDER BY id"));
+        }
+    }
+
+    private static List<Guest> guests(Connection c) throws SQLException {
+        List<Guest> guests = new ArrayList<>();
+        try (Statement s = c.createStatement(); ResultSet rs = s.executeQuery("SELECT id, username FROM users WHERE username LIKE 'guest%' ORDER BY id")) {
+            while (rs.next()) { guests.add(new Guest(rs.getLong(1), rs.getString(2), PASSWORD)); }
+        }
+        return guests;
+    }
+
+    private static List<Long> ids(Connection c, String sql) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Statement s = c.createStatement(); ResultSet rs = s.executeQuery(sql)) {
+            while (rs.next()) { ids.add(rs.getLong(1)); }
+        }
+        return ids;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,187 @@
+package org.example.hotelreservation.loadTest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.example.hotelreservation.loadTest.LoadTestSeeder.Guest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load generator for the reservation endpoints: bookings (40%), availability searches (40%) and
+ * listings of the caller's reservations (20%), each worker a virtual thread acting as one guest. Latencies go
+ * into an HdrHistogram per operation; 409 responses are counted as booking conflicts, anything else outside
+ * 2xx (or an I/O failure) as an error.
+ *
+ * <p>{@link #main} drives an already running instance, see "Load testing" in the README. It is configured with
+ * system properties: {@code loadtest.baseUrl}, {@code loadtest.concurrency}, {@code loadtest.duration} (ISO-8601),
+ * {@code loadtest.rooms}, {@code loadtest.user}, {@code loadtest.password}, {@code loadtest.histograms}.
+ * {@link LoadTestHarness} seeds and starts its own instance instead.
+ */
+public class ReservationLoadDriver {
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final List<String> OPERATIONS = List.of("book", "search", "list");
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final List<Guest> guests;
+    private final List<Long> roomIds;
+    private final Map<String, Stats> stats = new LinkedHashMap<>();
+
+    public ReservationLoadDriver(String baseUrl, List<Guest> guests, List<Long> roomIds) {
+        this.baseUrl = baseUrl;
+        this.guests = guests;
+        this.roomIds = roomIds;
+        OPERATIONS.forEach(op -> stats.put(op, new Stats()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8080");
+        String user = System.getProperty("loadtest.user", "admin");
+        String password = System.getProperty("loadtest.password", "admin123");
+        String authorization = authorization(user, password);
+
+        HttpClient setup = HttpClient.newHttpClient();
+        long userId = firstId(send(setup, HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/username/" + user))
+                .header("Authorization", authorization).GET().build()));
+        List<Long> roomIds = new ArrayList<>();
+        int roomCount = Integer.getInteger("loadtest.rooms", 200);
+        for (int i = 0; i < roomCount; i++) {
+            String room = "{\"number\":\"LT-" + UUID.randomUUID().toString().substring(0, 8) + "\",\"standard\":\"" + (i % 3 == 0 ? "Deluxe" : "Standard") + "\",\"price\":" + (80 + i % 120) + "}";
+            roomIds.add(firstId(send(setup, HttpRequest.newBuilder(URI.create(baseUrl + "/api/rooms")).header("Authorization", authorization)
+                    .header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(room)).build())));
+        }
+
+        ReservationLoadDriver driver = new ReservationLoadDriver(baseUrl, List.of(new Guest(userId, user, password)), roomIds);
+        double seconds = driver.run(Integer.getInteger("loadtest.concurrency", 200), Duration.parse(System.getProperty("loadtest.duration", "PT60S")));
+        driver.report(seconds, System.out);
+        driver.writeHistograms(Path.of(System.getProperty("loadtest.histograms", "target/loadtest")));
+    }
+
+    /** Signs every guest in once, unmeasured, so the run starts with the authentication cache warm instead of a BCrypt check per guest. */
+    public void warmUp() {
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Guest guest : guests) {
+                workers.submit(() -> client.send(get("/api/reservations/user/" + guest.id() + "?size=1", authorization(guest.username(), guest.password())),
+                        HttpResponse.BodyHandlers.discarding()));
+            }
+        }
+    }
+
+    /** Runs {@code concurrency} workers until {@code duration} has passed and returns the elapsed seconds. */
+    public double run(int concurrency, Duration duration) {
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                Guest guest = guests.get(i % guests.size());
+                String authorization = authorization(guest.username(), guest.password());
+                workers.submit(() -> {
+                    while (System.nanoTime() < deadline) { step(guest, authorization); }
+                    return null;
+                });
+            }
+        }
+        return (System.nanoTime() - started) / 1e9;
+    }
+
+    private void step(Guest guest, String authorization) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate from = LocalDate.now().plusDays(1 + random.nextInt(365));
+        int roll = random.nextInt(100);
+        if (roll < 40) {
+            long roomId = roomIds.get(random.nextInt(roomIds.size()));
+            String body = "{\"userId\":" + guest.id() + ",\"roomId\":" + roomId + ",\"date\":\"" + from + "\",\"checkOut\":\"" + from.plusDays(1 + random.nextInt(3)) + "\"}";
+            timed("book", HttpRequest.newBuilder(URI.create(baseUrl + "/api/reservations")).header("Authorization", authorization)
+                    .header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body)).build());
+        } else if (roll < 80) {
+            timed("search", get("/api/rooms/available?from=" + from + "&to=" + from.plusDays(2), authorization));
+        } else {
+            timed("list", get("/api/reservations/user/" + guest.id() + "?size=50", authorization));
+        }
+    }
+
+    private void timed(String op, HttpRequest request) {
+        Stats s = stats.get(op);
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        s.latency.recordValue(Math.max(1, (System.nanoTime() - start) / 1_000));
+        if (status == 409) { s.conflicts.incrementAndGet(); }
+        else if (status < 200 || status >= 300) { s.errors.incrementAndGet(); }
+    }
+
+    public void report(double seconds, PrintStream out) {
+        out.printf("%-8s %9s %9s %9s %9s %9s %9s %9s %9s %9s%n",
+                "op", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "conflict%", "error%");
+        stats.forEach((op, s) -> {
+            long n = s.latency.getTotalCount();
+            if (n == 0) { return; }
+            out.printf("%-8s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", op, n, n / seconds,
+                    ms(s.latency, 50), ms(s.latency, 90), ms(s.latency, 99), ms(s.latency, 99.9), s.latency.getMaxValue() / 1e3,
+                    100.0 * s.conflicts.get() / n, 100.0 * s.errors.get() / n);
+        });
+    }
+
+    /** Writes one {@code <op>.hgrm} percentile distribution (in milliseconds) per operation, e.g. for the HdrHistogram plotter. */
+    public void writeHistograms(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Stats> e : stats.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(e.getKey() + ".hgrm")))) {
+                e.getValue().latency.outputPercentileDistribution(out, 1_000.0);
+            }
+        }
+    }
+
+    private static double ms(Histogram h, double percentile) { return h.getValueAtPercentile(percentile) / 1e3; }
+
+    private HttpRequest get(String path, String authorization) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Authorization", authorization).GET().build();
+    }
+
+    private static String authorization(String user, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String send(HttpClient client, HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) { throw new IllegalStateException(request.uri() + " -> " + response.statusCode() + " " + response.body()); }
+        return response.body();
+    }
+
+    private static long firstId(String json) {
+        Matcher m = ID.matcher(json);
+        if (!m.find()) { throw new IllegalStateException("No id in " + json); }
+        return Long.parseLong(m.group(1));
+    }
+
+    /** Latencies in microseconds. */
+    private static final class Stats {
+        final Histogram latency = new ConcurrentHistogram(3);
+        final AtomicLong conflicts = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package org.example.hotelreservation.unitTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.hotelreservation.entity.Role;
+import org.example.hotelreservation.event.UserChangedEvent;
+import org.example.hotelreservation.security.AuthenticatedUser;
+import org.example.hotelreservation.security.CachingAuthenticationProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingAuthenticationProviderTest {
+
+    private PasswordEncoder pwEncoder;
+    private SimpleMeterRegistry registry;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        UserDetailsService users = mock(UserDetailsService.class);
+        when(users.loadUserByUsername("u1")).thenAnswer(i -> new AuthenticatedUser(1L, "u1", "ENC", Role.USER));
+        pwEncoder = mock(PasswordEncoder.class);
+        when(pwEncoder.matches("secret", "ENC")).thenReturn(true);
+        registry = new SimpleMeterRegistry();
+        provider = new CachingAuthenticationProvider(users, pwEncoder, registry, Duration.ofMinutes(5), 100);
+    }
+
+    private Authentication login(String password) {
+        return provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("u1", password));
+    }
+
+    private double gets(String result) { return registry.get("cache.gets").tag("cache", "authentication").tag("result", result).functionCounter().count(); }
+
+    @Test @DisplayName("repeated login is served from the cache without another password check")
+    void testCachedLogin() {
+        Authentication first = login("secret");
+        Authentication second = login("secret");
+
+        assertTrue(second.isAuthenticated());
+        assertSame(first, second);
+        assertNull(((AuthenticatedUser) second.getPrincipal()).getPassword());
+        verify(pwEncoder, times(1)).matches(any(), any());
+        assertEquals(1.0, gets("hit"));
+        assertEquals(1.0, gets("miss"));
+    }
+
+    @Test @DisplayName("wrong password is never cached")
+    void testWrongPasswordNotCached() {
+        login("secret");
+
+        assertThrows(BadCredentialsException.class, () -> login("wrong"));
+        assertThrows(BadCredentialsException.class, () -> login("wrong"));
+        verify(pwEncoder, times(2)).matches(eq("wrong"), any());
+        assertEquals(2, registry.get("authentication.duration").tag("outcome", "failure").timer().count());
+        assertEquals(1, registry.get("authentication.duration").tag("cache", "miss").tag("outcome", "success").timer().count());
+    }
+
+    @Test @DisplayName("user change evicts that user's cached logins")
+    void testInvalidation() {
+        login("secret");
+        provider.onUserChanged(new UserChangedEvent(2L));
+        login("secret");
+        verify(pwEncoder, times(1)).matches(any(), any());
+
+        provider.onUserChanged(new UserChangedEvent(1L));
+        login("secret");
+        verify(pwEncoder, times(2)).matches(any(), any());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package org.example.hotelreservation.unitTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.hotelreservation.dto.ReservationRequestDTO;
+import org.example.hotelreservation.entity.Reservation;
+import org.example.hotelreservation.entity.Room;
+import org.example.hotelreservation.entity.User;
+import org.example.hotelreservation.event.ReservationChangedEvent;
+import org.example.hotelreservation.repository.ReservationRepository;
+import org.example.hotelreservation.repository.RoomRepository;
+import org.example.hotelreservation.repository.UserRepository;
+import org.example.hotelreservation.service.BookingCoordinator;
+import org.example.hotelreservation.service.BookingMetrics;
+import org.example.hotelreservation.service.ChangeGenerations;
+import org.example.hotelreservation.service.ReservationChangeFeed;
+import org.example.hotelreservation.service.ReservationLedger;
+import org.example.hotelreservation.service.ReservationService;
+import org.example.hotelreservation.service.RoomAvailabilityIndex;
+import org.example.hotelreservation.service.RoomCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReservationConcurrencyTest {
+
+    private static final int ROOMS = 8;
+    private static final int DAYS = 60;
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 2_000;
+    private static final long INSERT_LATENCY_NANOS = 20_000;
+
+    private final Queue<Reservation> committed = new ConcurrentLinkedQueue<>();
+    private ReservationService svc;
+
+    @BeforeEach
+    void setUp() {
+        ReservationRepository resRepo = mock(ReservationRepository.class, withSettings().stubOnly());
+        UserRepository userRepo = mock(UserRepository.class, withSettings().stubOnly());
+        RoomRepository roomRepo = mock(RoomRepository.class, withSettings().stubOnly());
+
+        User user = new User();
+        user.setId(1L);
+        when(userRepo.findById(any())).thenReturn(Optional.of(user));
+        RoomCatalog catalog = mock(RoomCatalog.class, withSettings().stubOnly());
+        when(catalog.contains(any())).thenReturn(true);
+        when(roomRepo.getReferenceById(any())).thenAnswer(i -> {
+            Room room = new Room();
+            room.setId(i.getArgument(0));
+            return room;
+        });
+        AtomicLong ids = new AtomicLong();
+        when(resRepo.saveAndFlush(any())).thenAnswer(i -> {
+            LockSupport.parkNanos(INSERT_LATENCY_NANOS);
+            Reservation r = i.getArgument(0);
+            r.setId(ids.incrementAndGet());
+            committed.add(r);
+            return r;
+        });
+
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex(resRepo, mock(ReservationChangeFeed.class), mock(ReservationLedger.class), mock(ChangeGenerations.class), event -> {});
+        BookingCoordinator coordinator = new BookingCoordinator(1024, 1_000, 5);
+        svc = new ReservationService(resRepo, userRepo, roomRepo, catalog, index, coordinator, new BookingMetrics(new SimpleMeterRegistry()),
+                mock(ReservationLedger.class, withSettings().stubOnly()), event -> index.onReservationChanged((ReservationChangedEvent) event));
+    }
+
+    @Test @DisplayName("concurrent bookings never double-book a room night")
+    void testNoDoubleBooking() throws Exception {
+        LocalDate start = LocalDate.now().plusDays(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                go.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    LocalDate checkIn = start.plusDays(random.nextInt(DAYS));
+                    ReservationRequestDTO dto = new ReservationRequestDTO(1L, (long) random.nextInt(1, ROOMS + 1),
+                            checkIn, checkIn.plusDays(random.nextInt(1, 4)));
+                    try {
+                        svc.createReservation(dto);
+                        accepted.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> worker : workers) { worker.get(60, TimeUnit.SECONDS); }
+        pool.shutdown();
+
+        int[][] nights = new int[ROOMS + 1][DAYS + 4];
+        for (Reservation r : committed) {
+            for (LocalDate d = r.getDate(); d.isBefore(r.getCheckOut()); d = d.plusDays(1)) {
+                nights[r.getRoom().getId().intValue()][(int) (d.toEpochDay() - start.toEpochDay())]++;
+            }
+        }
+        for (int[] room : nights) {
+            for (int count : room) { assertTrue(count <= 1, "room night booked " + count + " times"); }
+        }
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD, accepted.get() + rejected.get());
+        assertEquals(accepted.get(), committed.size());
+        assertTrue(accepted.get() > 0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package org.example.hotelreservation.unitTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.hotelreservation.dto.ReservationResponseDTO;
+import org.example.hotelreservation.repository.ReservationRepository;
+import org.example.hotelreservation.service.ReservationExportService;
+import org.example.hotelreservation.service.ReservationExportService.Format;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReservationExportServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 10);
+
+    private ReservationRepository resRepo;
+    private ReservationExportService exportService;
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        resRepo = mock(ReservationRepository.class);
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ReservationExportService(resRepo, mapper);
+        when(resRepo.streamAllForExport()).thenAnswer(i -> Stream.of(
+                new ReservationResponseDTO(1L, 2L, 3L, DAY, DAY.plusDays(2)),
+                new ReservationResponseDTO(4L, 5L, 6L, DAY, DAY.plusDays(1))
+        ).onClose(() -> streamClosed.set(true)));
+    }
+
+    private String export(Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test @DisplayName("NDJSON export writes one JSON object per line and closes the cursor")
+    void testExportNdjson() throws Exception {
+        String body = export(Format.NDJSON);
+
+        assertEquals("{\"id\":1,\"userId\":2,\"roomId\":3,\"date\":\"2030-01-10\",\"checkOut\":\"2030-01-12\"}\n"
+                + "{\"id\":4,\"userId\":5,\"roomId\":6,\"date\":\"2030-01-10\",\"checkOut\":\"2030-01-11\"}\n", body);
+        assertTrue(streamClosed.get());
+    }
+
+    @Test @DisplayName("CSV export writes a header and one line per reservation")
+    void testExportCsv() throws Exception {
+        String body = export(Format.CSV);
+
+        assertEquals("id,userId,roomId,date,checkOut\n1,2,3,2030-01-10,2030-01-12\n4,5,6,2030-01-10,2030-01-11\n", body);
+        verify(resRepo, never()).findAll();
+    }
+}
\ No newline at end of file
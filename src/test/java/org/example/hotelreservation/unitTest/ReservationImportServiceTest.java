@@ -0,0 +1,147 @@
+package org.example.hotelreservation.unitTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.example.hotelreservation.dto.BulkReservationResultDTO;
+import org.example.hotelreservation.dto.BulkReservationRowDTO;
+import org.example.hotelreservation.entity.Reservation;
+import org.example.hotelreservation.entity.Room;
+import org.example.hotelreservation.entity.User;
+import org.example.hotelreservation.event.ReservationChangedEvent;
+import org.example.hotelreservation.event.RoomChangedEvent;
+import org.example.hotelreservation.repository.ReservationRepository;
+import org.example.hotelreservation.repository.RoomRepository;
+import org.example.hotelreservation.repository.UserRepository;
+import org.example.hotelreservation.service.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReservationImportServiceTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(10);
+
+    private ReservationRepository resRepo;
+    private RoomAvailabilityIndex index;
+    private ReservationImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        resRepo = mock(ReservationRepository.class);
+        UserRepository userRepo = mock(UserRepository.class);
+        RoomRepository roomRepo = mock(RoomRepository.class);
+        RoomCatalog catalog = new RoomCatalog(roomRepo, mock(ChangeGenerations.class), new SimpleMeterRegistry());
+        index = new RoomAvailabilityIndex(resRepo, mock(ReservationChangeFeed.class), mock(ReservationLedger.class), mock(ChangeGenerations.class), event -> {});
+        ApplicationEventPublisher publisher = event -> index.onReservationChanged((ReservationChangedEvent) event);
+
+        for (long id = 1; id <= 2; id++) {
+            Room room = new Room();
+            room.setId(id);
+            room.setStandard("Standard");
+            catalog.onRoomChanged(RoomChangedEvent.saved(room));
+            when(roomRepo.getReferenceById(id)).thenReturn(room);
+        }
+        User user = new User();
+        user.setId(1L);
+        when(userRepo.findExistingIds(any())).thenReturn(Set.of(1L));
+        when(userRepo.getReferenceById(1L)).thenReturn(user);
+
+        AtomicLong ids = new AtomicLong(100);
+        when(resRepo.saveAll(anyList())).thenAnswer(i -> {
+            List<Reservation> batch = i.getArgument(0);
+            batch.forEach(r -> r.setId(ids.incrementAndGet()));
+            return batch;
+        });
+
+        ReservationLedger ledger = mock(ReservationLedger.class);
+        ReservationService reservationService = new ReservationService(resRepo, userRepo, roomRepo, catalog, index, new BookingCoordinator(64, 100, 3), new BookingMetrics(new SimpleMeterRegistry()), ledger, publisher);
+        importService = new ReservationImportService(resRepo, userRepo, roomRepo, catalog, index, new BookingCoordinator(64, 100, 3),
+                reservationService, ledger, publisher, new ObjectMapper().registerModule(new JavaTimeModule()),
+                Validation.buildDefaultValidatorFactory().getValidator(), new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    private BulkReservationResultDTO importBody(String body) throws Exception {
+        return importService.importReservations(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String row(long userId, long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return String.format("{\"userId\":%d,\"roomId\":%d,\"date\":\"%s\",\"checkOut\":\"%s\"}", userId, roomId, checkIn, checkOut);
+    }
+
+    @Test @DisplayName("JSON array – accepted rows are saved in one batch and reported with ids")
+    void testImportJsonArray() throws Exception {
+        String body = "[" + row(1, 1, DAY, DAY.plusDays(2)) + "," + row(1, 2, DAY, DAY.plusDays(1)) + "]";
+
+        BulkReservationResultDTO result = importBody(body);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(0, result.getRejected());
+        assertEquals(List.of("CREATED", "CREATED"), result.getRows().stream().map(BulkReservationRowDTO::getStatus).toList());
+        assertNotNull(result.getRows().getFirst().getReservationId());
+        verify(resRepo, times(1)).saveAll(anyList());
+        assertTrue(index.isBooked(1L, DAY.plusDays(1)));
+    }
+
+    @Test @DisplayName("NDJSON – overlaps within the batch and with existing bookings are rejected")
+    void testImportNdjsonConflicts() throws Exception {
+        index.onReservationChanged(new ReservationChangedEvent(1L, null, new ReservationChangedEvent.Booking(1L, 2L, DAY, DAY.plusDays(1))));
+        String body = row(1, 1, DAY, DAY.plusDays(3)) + "\n"
+                + row(1, 1, DAY.plusDays(2), DAY.plusDays(4)) + "\n"
+                + row(1, 2, DAY, DAY.plusDays(1)) + "\n"
+                + row(1, 1, DAY.plusDays(3), DAY.plusDays(4)) + "\n";
+
+        BulkReservationResultDTO result = importBody(body);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(2, result.getRejected());
+        assertEquals(List.of("CREATED", "CONFLICT", "CONFLICT", "CREATED"), result.getRows().stream().map(BulkReservationRowDTO::getStatus).toList());
+    }
+
+    @Test @DisplayName("invalid rows are reported without stopping the import")
+    void testImportInvalidRows() throws Exception {
+        String body = "[" + row(9, 1, DAY, DAY.plusDays(1)) + ","
+                + row(1, 7, DAY, DAY.plusDays(1)) + ","
+                + row(1, 1, DAY, DAY) + ","
+                + "{\"userId\":1,\"roomId\":1,\"date\":\"not-a-date\"},"
+                + "{\"userId\":1,\"roomId\":1},"
+                + row(1, 1, DAY, DAY.plusDays(1)) + "]";
+
+        BulkReservationResultDTO result = importBody(body);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(5, result.getRejected());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), result.getRows().stream().map(BulkReservationRowDTO::getIndex).toList());
+        assertEquals("User not found: 9", result.getRows().get(0).getMessage());
+        assertEquals("Room not found: 7", result.getRows().get(1).getMessage());
+        assertEquals("CREATED", result.getRows().get(5).getStatus());
+    }
+
+    @Test @DisplayName("rows retried one by one after a rejected chunk report conflicts apart from other failures")
+    void testImportFallbackFailures() throws Exception {
+        index.onReservationChanged(new ReservationChangedEvent(1L, null, new ReservationChangedEvent.Booking(1L, 1L, DAY, DAY.plusDays(1))));
+        when(resRepo.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("chunk rejected"));
+        String body = "[" + row(1, 1, DAY, DAY.plusDays(1)) + "," + row(1, 2, DAY, DAY.plusDays(1)) + "]";
+
+        BulkReservationResultDTO result = importBody(body);
+
+        assertEquals(0, result.getCreated());
+        assertEquals(List.of("CONFLICT", "FAILED"), result.getRows().stream().map(BulkReservationRowDTO::getStatus).toList());
+        assertEquals("User not found: 1", result.getRows().get(1).getMessage());
+    }
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package org.example.hotelreservation.unitTest;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.hotelreservation.dto.PageDTO;
 import org.example.hotelreservation.dto.ReservationRequestDTO;
 import org.example.hotelreservation.dto.ReservationResponseDTO;
 import org.example.hotelreservation.entity.Reservation;
@@ -8,10 +10,19 @@ import org.example.hotelreservation.entity.User;
 import org.example.hotelreservation.repository.ReservationRepository;
 import org.example.hotelreservation.repository.RoomRepository;
 import org.example.hotelreservation.repository.UserRepository;
+import org.example.hotelreservation.event.ReservationChangedEvent;
+import org.example.hotelreservation.service.BookingConflictException;
+import org.example.hotelreservation.service.BookingCoordinator;
+import org.example.hotelreservation.service.BookingMetrics;
+import org.example.hotelreservation.service.ReservationLedger;
 import org.example.hotelreservation.service.ReservationService;
+import org.example.hotelreservation.service.RoomAvailabilityIndex;
+import org.example.hotelreservation.service.RoomCatalog;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -24,6 +35,11 @@ class ReservationServiceTest {
     private ReservationRepository resRepo;
     private UserRepository userRepo;
     private RoomRepository roomRepo;
+    private RoomCatalog catalog;
+    private RoomAvailabilityIndex index;
+    private ApplicationEventPublisher publisher;
+    private ReservationLedger ledger;
+    private SimpleMeterRegistry meters;
     private ReservationService svc;
 
     @BeforeEach
@@ -31,18 +47,24 @@ class ReservationServiceTest {
         resRepo = mock(ReservationRepository.class);
         userRepo = mock(UserRepository.class);
         roomRepo = mock(RoomRepository.class);
-        svc = new ReservationService(resRepo, userRepo, roomRepo);
+        catalog = mock(RoomCatalog.class);
+        when(catalog.contains(any())).thenReturn(true);
+        index = mock(RoomAvailabilityIndex.class);
+        publisher = mock(ApplicationEventPublisher.class);
+        ledger = mock(ReservationLedger.class);
+        meters = new SimpleMeterRegistry();
+        svc = new ReservationService(resRepo, userRepo, roomRepo, catalog, index, new BookingCoordinator(64, 100, 3), new BookingMetrics(meters), ledger, publisher);
     }
 
     @Test @DisplayName("createReservation – OK")
     void testCreateReservation_success() {
-        ReservationRequestDTO dto = new ReservationRequestDTO(1L, 2L, LocalDate.now());
-        when(resRepo.existsByRoomIdAndDate(2L, dto.getDate())).thenReturn(false);
+        ReservationRequestDTO dto = new ReservationRequestDTO(1L, 2L, LocalDate.now(), LocalDate.now().plusDays(3));
+        when(index.isFree(2L, dto.getDate(), dto.getCheckOut())).thenReturn(true);
         User u = new User(); u.setId(1L);
         Room r = new Room(); r.setId(2L);
         when(userRepo.findById(1L)).thenReturn(Optional.of(u));
-        when(roomRepo.findById(2L)).thenReturn(Optional.of(r));
-        when(resRepo.save(any())).thenAnswer(i -> {
+        when(roomRepo.getReferenceById(2L)).thenReturn(r);
+        when(resRepo.saveAndFlush(any())).thenAnswer(i -> {
             Reservation x = i.getArgument(0);
             x.setId(100L);
             return x;
@@ -52,37 +74,46 @@ class ReservationServiceTest {
         assertEquals(100L, out.getId());
         assertEquals(1L, out.getUserId());
         assertEquals(2L, out.getRoomId());
-        verify(resRepo).save(any());
+        assertEquals(dto.getCheckOut(), out.getCheckOut());
+        verify(resRepo).saveAndFlush(any());
+        verify(ledger).append(argThat(e -> e.type().equals("CREATED") && e.reservationId() == 100L));
+        verify(publisher).publishEvent(any(ReservationChangedEvent.class));
     }
 
     @Test @DisplayName("createReservation – conflict throws")
     void testCreateReservation_conflict() {
-        ReservationRequestDTO dto = new ReservationRequestDTO(1L, 2L, LocalDate.now());
-        when(resRepo.existsByRoomIdAndDate(2L, dto.getDate())).thenReturn(true);
+        ReservationRequestDTO dto = new ReservationRequestDTO(1L, 2L, LocalDate.now(), null);
+        when(index.isFree(2L, dto.getDate(), dto.getDate().plusDays(1))).thenReturn(false);
+        assertThrows(BookingConflictException.class, () -> svc.createReservation(dto));
+        verify(resRepo, never()).saveAndFlush(any());
+        assertEquals(1, meters.get("booking.conflicts").tag("operation", "create").counter().count());
+        assertEquals(1, meters.get("booking.requests").tag("outcome", "conflict").timer().count());
+    }
+
+    @Test @DisplayName("createReservation – stay longer than the maximum throws")
+    void testCreateReservation_tooLong() {
+        LocalDate from = LocalDate.now();
+        ReservationRequestDTO dto = new ReservationRequestDTO(1L, 2L, from, from.plusDays(Reservation.MAX_NIGHTS + 1));
         assertThrows(RuntimeException.class, () -> svc.createReservation(dto));
+        verify(index, never()).isFree(any(), any(), any());
+        verify(resRepo, never()).saveAndFlush(any());
     }
 
-    @Test @DisplayName("getAllReservations returns list")
+    @Test @DisplayName("getAllReservations returns a page and the cursor of the next one")
     void testGetAllReservations() {
-        User u = new User(); u.setId(1L);
-        Room r = new Room(); r.setId(2L);
-        Reservation res1 = new Reservation();
-        res1.setId(1L);
-        res1.setUser(u);
-        res1.setRoom(r);
-        res1.setDate(LocalDate.of(2025,5,20));
-        Reservation res2 = new Reservation();
-        res2.setId(2L);
-        res2.setUser(u);
-        res2.setRoom(r);
-        res2.setDate(LocalDate.of(2025,5,21));
-        when(resRepo.findAll()).thenReturn(List.of(res1, res2));
-
-        List<ReservationResponseDTO> list = svc.getAllReservations();
-        assertEquals(2, list.size());
-        assertEquals(1L, list.get(0).getId());
-        assertEquals(2L, list.get(1).getId());
-        verify(resRepo).findAll();
+        ReservationResponseDTO res1 = new ReservationResponseDTO(1L, 1L, 1L, LocalDate.of(2025,5,20), LocalDate.of(2025,5,21));
+        ReservationResponseDTO res2 = new ReservationResponseDTO(2L, 1L, 1L, LocalDate.of(2025,5,21), LocalDate.of(2025,5,22));
+        when(resRepo.findResponsesAfter(0L, Limit.of(2))).thenReturn(List.of(res1, res2));
+
+        PageDTO<ReservationResponseDTO> page = svc.getAllReservations(0L, 1);
+        assertEquals(1, page.getItems().size());
+        assertEquals(1L, page.getItems().getFirst().getId());
+        assertEquals(1L, page.getNextAfter());
+
+        when(resRepo.findResponsesAfter(1L, Limit.of(2))).thenReturn(List.of(res2));
+        PageDTO<ReservationResponseDTO> last = svc.getAllReservations(1L, 1);
+        assertEquals(2L, last.getItems().getFirst().getId());
+        assertNull(last.getNextAfter());
     }
 
     @Test @DisplayName("getReservationById – success")
@@ -111,58 +142,40 @@ class ReservationServiceTest {
 
     @Test @DisplayName("getReservationsByUser returns filtered list")
     void testGetReservationsByUser() {
-        User u = new User(); u.setId(7L);
-        Room r = new Room(); r.setId(8L);
-        Reservation res = new Reservation();
-        res.setId(10L);
-        res.setUser(u);
-        res.setRoom(r);
-        res.setDate(LocalDate.of(2025,5,23));
-        when(resRepo.findByUserId(7L)).thenReturn(List.of(res));
+        ReservationResponseDTO res = new ReservationResponseDTO(10L, 7L, 8L, LocalDate.of(2025,5,23), LocalDate.of(2025,5,24));
+        when(resRepo.findResponsesByUserIdAfter(7L, 0L, Limit.of(101))).thenReturn(List.of(res));
 
-        List<ReservationResponseDTO> list = svc.getReservationsByUser(7L);
+        List<ReservationResponseDTO> list = svc.getReservationsByUser(7L, 0L, 100).getItems();
         assertEquals(1, list.size());
         assertEquals(10L, list.getFirst().getId());
         assertEquals(7L, list.getFirst().getUserId());
-        verify(resRepo).findByUserId(7L);
+        verify(resRepo).findResponsesByUserIdAfter(7L, 0L, Limit.of(101));
     }
 
     @Test @DisplayName("getReservationsByDate returns filtered list")
     void testGetReservationsByDate() {
         LocalDate date = LocalDate.of(2025,5,24);
-        User u = new User(); u.setId(9L);
-        Room r = new Room(); r.setId(10L);
-        Reservation res = new Reservation();
-        res.setId(11L);
-        res.setUser(u);
-        res.setRoom(r);
-        res.setDate(date);
-        when(resRepo.findByDate(date)).thenReturn(List.of(res));
+        ReservationResponseDTO res = new ReservationResponseDTO(11L, 9L, 10L, date, date.plusDays(1));
+        when(resRepo.findResponsesByDate(date)).thenReturn(List.of(res));
 
         List<ReservationResponseDTO> list = svc.getReservationsByDate(date);
         assertEquals(1, list.size());
         assertEquals(11L, list.getFirst().getId());
         assertEquals(date, list.getFirst().getDate());
-        verify(resRepo).findByDate(date);
+        verify(resRepo).findResponsesByDate(date);
     }
 
     @Test @DisplayName("getReservationsByDateAndUser returns filtered list")
     void testGetReservationsByDateAndUser() {
         LocalDate date = LocalDate.of(2025,5,25);
-        User u = new User(); u.setId(12L);
-        Room r = new Room(); r.setId(13L);
-        Reservation res = new Reservation();
-        res.setId(14L);
-        res.setUser(u);
-        res.setRoom(r);
-        res.setDate(date);
-        when(resRepo.findByDateAndUserId(date, 12L)).thenReturn(List.of(res));
+        ReservationResponseDTO res = new ReservationResponseDTO(14L, 12L, 13L, date, date.plusDays(1));
+        when(resRepo.findResponsesByDateAndUserId(date, 12L)).thenReturn(List.of(res));
 
         List<ReservationResponseDTO> list = svc.getReservationsByDateAndUser(date, 12L);
         assertEquals(1, list.size());
         assertEquals(14L, list.getFirst().getId());
         assertEquals(12L, list.getFirst().getUserId());
-        verify(resRepo).findByDateAndUserId(date, 12L);
+        verify(resRepo).findResponsesByDateAndUserId(date, 12L);
     }
 
     @Test @DisplayName("updateReservation – change and no conflict")
@@ -174,21 +187,22 @@ class ReservationServiceTest {
         existing.setUser(oldUser);
         existing.setRoom(oldRoom);
         existing.setDate(LocalDate.of(2025,6,2));
+        existing.setCheckOut(LocalDate.of(2025,6,3));
 
         when(resRepo.findById(21L)).thenReturn(Optional.of(existing));
-        when(resRepo.existsByRoomIdAndDate(19L, LocalDate.of(2025,6,3))).thenReturn(false);
+        when(index.isFree(19L, LocalDate.of(2025,6,3), LocalDate.of(2025,6,4))).thenReturn(true);
         User newUser = new User(); newUser.setId(17L);
         Room newRoom = new Room(); newRoom.setId(19L);
         when(userRepo.findById(17L)).thenReturn(Optional.of(newUser));
-        when(roomRepo.findById(19L)).thenReturn(Optional.of(newRoom));
+        when(roomRepo.getReferenceById(19L)).thenReturn(newRoom);
 
-        ReservationRequestDTO dto = new ReservationRequestDTO(17L, 19L, LocalDate.of(2025,6,3));
-        when(resRepo.save(any())).thenAnswer(i -> i.getArgument(0));
+        ReservationRequestDTO dto = new ReservationRequestDTO(17L, 19L, LocalDate.of(2025,6,3), null);
+        when(resRepo.saveAndFlush(any())).thenAnswer(i -> i.getArgument(0));
 
         ReservationResponseDTO resp = svc.updateReservation(21L, dto);
         assertEquals(21L, resp.getId());
-        verify(resRepo).existsByRoomIdAndDate(19L, LocalDate.of(2025,6,3));
-        verify(resRepo).save(any());
+        verify(index).isFree(19L, LocalDate.of(2025,6,3), LocalDate.of(2025,6,4));
+        verify(resRepo).saveAndFlush(any());
     }
 
     @Test @DisplayName("updateReservation – conflict after change throws")
@@ -198,21 +212,65 @@ class ReservationServiceTest {
         existing.setUser(new User());
         existing.setRoom(new Room());
         existing.setDate(LocalDate.of(2025,1,1));
+        existing.setCheckOut(LocalDate.of(2025,1,2));
 
         when(resRepo.findById(9L)).thenReturn(Optional.of(existing));
-        when(resRepo.existsByRoomIdAndDate(12L, LocalDate.of(2025,2,2))).thenReturn(true);
+        when(index.isFree(12L, LocalDate.of(2025,2,2), LocalDate.of(2025,2,3))).thenReturn(false);
 
-        ReservationRequestDTO dto = new ReservationRequestDTO(1L, 12L, LocalDate.of(2025,2,2));
+        ReservationRequestDTO dto = new ReservationRequestDTO(1L, 12L, LocalDate.of(2025,2,2), null);
         assertThrows(RuntimeException.class, () -> svc.updateReservation(9L, dto));
     }
 
     @Test @DisplayName("deleteReservation – success and failure")
     void testDeleteReservation() {
-        when(resRepo.existsById(20L)).thenReturn(true);
+        Reservation existing = new Reservation();
+        existing.setId(20L);
+        existing.setUser(new User());
+        existing.setRoom(new Room());
+        existing.setDate(LocalDate.of(2025,6,4));
+        existing.setCheckOut(LocalDate.of(2025,6,5));
+        when(resRepo.findById(20L)).thenReturn(Optional.of(existing));
         assertDoesNotThrow(() -> svc.deleteReservation(20L));
-        verify(resRepo).deleteById(20L);
+        verify(resRepo).delete(existing);
+        verify(ledger).append(argThat(e -> e.type().equals("CANCELLED") && e.reservationId() == 20L));
+        verify(publisher).publishEvent(any(ReservationChangedEvent.class));
 
-        when(resRepo.existsById(21L)).thenReturn(false);
+        when(resRepo.findById(21L)).thenReturn(Optional.empty());
         assertThrows(RuntimeException.class, () -> svc.deleteReservation(21L));
     }
+
+    @Test @DisplayName("createReservation – check-out not after check-in throws")
+    void testCreateReservation_invalidStay() {
+        LocalDate day = LocalDate.now().plusDays(5);
+        ReservationRequestDTO dto = new ReservationRequestDTO(1L, 2L, day, day);
+        assertThrows(RuntimeException.class, () -> svc.createReservation(dto));
+        verify(resRepo, never()).saveAndFlush(any());
+    }
+
+    @Test @DisplayName("updateReservation – extending a stay only checks the added nights")
+    void testUpdateReservation_extendStay() {
+        User u = new User(); u.setId(1L);
+        Room r = new Room(); r.setId(2L);
+        Reservation existing = new Reservation();
+        existing.setId(30L);
+        existing.setUser(u);
+        existing.setRoom(r);
+        existing.setDate(LocalDate.of(2030,1,10));
+        existing.setCheckOut(LocalDate.of(2030,1,12));
+        when(resRepo.findById(30L)).thenReturn(Optional.of(existing));
+        when(index.isFree(eq(2L), any(), any())).thenReturn(true);
+        when(index.isFree(2L, LocalDate.of(2030,1,12), LocalDate.of(2030,1,15))).thenReturn(false);
+        when(userRepo.findById(1L)).thenReturn(Optional.of(u));
+        when(roomRepo.getReferenceById(2L)).thenReturn(r);
+        when(resRepo.saveAndFlush(any())).thenAnswer(i -> i.getArgument(0));
+
+        ReservationRequestDTO shorter = new ReservationRequestDTO(1L, 2L, LocalDate.of(2030,1,9), LocalDate.of(2030,1,11));
+        assertEquals(LocalDate.of(2030,1,11), svc.updateReservation(30L, shorter).getCheckOut());
+        verify(index).isFree(2L, LocalDate.of(2030,1,9), LocalDate.of(2030,1,10));
+
+        existing.setDate(LocalDate.of(2030,1,10));
+        existing.setCheckOut(LocalDate.of(2030,1,12));
+        ReservationRequestDTO longer = new ReservationRequestDTO(1L, 2L, LocalDate.of(2030,1,10), LocalDate.of(2030,1,15));
+        assertThrows(RuntimeException.class, () -> svc.updateReservation(30L, longer));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+package org.example.hotelreservation.unitTest;
+
+import org.example.hotelreservation.dto.ReservationEventDTO;
+import org.example.hotelreservation.event.AvailabilityChangedEvent;
+import org.example.hotelreservation.event.AvailabilityChangedEvent.Stay;
+import org.example.hotelreservation.event.ReservationChangedEvent;
+import org.example.hotelreservation.event.ReservationChangedEvent.Booking;
+import org.example.hotelreservation.repository.BookedStayView;
+import org.example.hotelreservation.repository.ReservationRepository;
+import org.example.hotelreservation.service.ChangeGenerations;
+import org.example.hotelreservation.service.ReservationChangeFeed;
+import org.example.hotelreservation.service.ReservationChangeFeed.Changes;
+import org.example.hotelreservation.service.ReservationChangeFeed.Cursor;
+import org.example.hotelreservation.service.ReservationLedger;
+import org.example.hotelreservation.service.RoomAvailabilityIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RoomAvailabilityIndexTest {
+
+    private ReservationRepository resRepo;
+    private ReservationChangeFeed changeFeed;
+    private ReservationLedger ledger;
+    private ChangeGenerations generations;
+    private ApplicationEventPublisher eventPublisher;
+    private RoomAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        resRepo = mock(ReservationRepository.class);
+        changeFeed = mock(ReservationChangeFeed.class);
+        ledger = mock(ReservationLedger.class);
+        generations = mock(ChangeGenerations.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        when(changeFeed.head()).thenReturn(Cursor.START);
+        when(changeFeed.read(any(), anyInt())).thenReturn(new Changes(List.of(), Cursor.START));
+        index = new RoomAvailabilityIndex(resRepo, changeFeed, ledger, generations, eventPublisher);
+        index.load();
+    }
+
+    private static ReservationEventDTO event(long seq, long reservationId, String type, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return new ReservationEventDTO(seq, reservationId, type, 5L, roomId, checkIn, checkOut, null);
+    }
+
+    private void polled(ReservationEventDTO... events) {
+        when(changeFeed.read(any(), anyInt())).thenReturn(new Changes(List.of(events), new Cursor("1", events.length)))
+                .thenReturn(new Changes(List.of(), new Cursor("1", events.length)));
+        index.poll();
+    }
+
+    private static BookedStayView stay(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return new BookedStayView() {
+            public Long getRoomId() { return roomId; }
+            public LocalDate getCheckIn() { return checkIn; }
+            public LocalDate getCheckOut() { return checkOut; }
+        };
+    }
+
+    private static Booking booking(Long roomId, LocalDate checkIn, LocalDate checkOut) { return new Booking(5L, roomId, checkIn, checkOut); }
+
+    @Test @DisplayName("load marks every night of the stays returned by the repository")
+    void testLoad() {
+        LocalDate day = LocalDate.now().plusDays(3);
+        when(resRepo.findBookedStaysFrom(any())).thenReturn(List.of(stay(1L, day, day.plusDays(2)), stay(2L, day.plusDays(100), day.plusDays(101))));
+
+        index.load();
+
+        assertTrue(index.isBooked(1L, day));
+        assertTrue(index.isBooked(1L, day.plusDays(1)));
+        assertFalse(index.isBooked(1L, day.plusDays(2)));
+        assertTrue(index.isBooked(2L, day.plusDays(100)));
+        assertFalse(index.isBooked(3L, day));
+    }
+
+    @Test @DisplayName("isFree treats check-out as exclusive and spans word boundaries")
+    void testIsFree() {
+        LocalDate checkIn = LocalDate.of(2030, 2, 20);
+        index.onReservationChanged(new ReservationChangedEvent(1L, null, booking(1L, checkIn, checkIn.plusDays(90))));
+
+        assertFalse(index.isFree(1L, checkIn.minusDays(1), checkIn.plusDays(1)));
+        assertFalse(index.isFree(1L, checkIn.plusDays(89), checkIn.plusDays(120)));
+        assertTrue(index.isFree(1L, checkIn.plusDays(90), checkIn.plusDays(200)));
+        assertTrue(index.isFree(1L, checkIn.minusDays(70), checkIn));
+        assertTrue(index.isFree(2L, checkIn, checkIn.plusDays(90)));
+    }
+
+    @Test @DisplayName("created, moved and cancelled events keep the index in step")
+    void testEvents() {
+        LocalDate first = LocalDate.of(2030, 1, 1);
+        LocalDate second = LocalDate.of(2031, 7, 15);
+
+        index.onReservationChanged(new ReservationChangedEvent(1L, null, booking(1L, first, first.plusDays(1))));
+        assertTrue(index.isBooked(1L, first));
+
+        index.onReservationChanged(new ReservationChangedEvent(1L, booking(1L, first, first.plusDays(1)), booking(1L, second, second.plusDays(1))));
+        assertFalse(index.isBooked(1L, first));
+        assertTrue(index.isBooked(1L, second));
+
+        index.onReservationChanged(new ReservationChangedEvent(1L, booking(1L, second, second.plusDays(1)), null));
+        assertFalse(index.isBooked(1L, second));
+    }
+
+    @Test @DisplayName("bitset grows in both directions without losing nights")
+    void testGrowth() {
+        LocalDate middle = LocalDate.of(2030, 6, 1);
+        index.onReservationChanged(new ReservationChangedEvent(1L, null, booking(7L, middle, middle.plusDays(1))));
+        index.onReservationChanged(new ReservationChangedEvent(2L, null, booking(7L, middle.minusDays(400), middle.minusDays(399))));
+        index.onReservationChanged(new ReservationChangedEvent(3L, null, booking(7L, middle.plusDays(400), middle.plusDays(401))));
+
+        assertTrue(index.isBooked(7L, middle));
+        assertTrue(index.isBooked(7L, middle.minusDays(400)));
+        assertTrue(index.isBooked(7L, middle.plusDays(400)));
+        assertFalse(index.isBooked(7L, middle.plusDays(1)));
+        assertFalse(index.isBooked(7L, middle.minusDays(401)));
+    }
+
+    @Test @DisplayName("poll applies stays created, moved and cancelled by other instances")
+    void testPollForeignChanges() {
+        LocalDate first = LocalDate.of(2030, 1, 1);
+        LocalDate second = LocalDate.of(2030, 3, 1);
+        ReservationEventDTO created = event(1, 9L, "CREATED", 1L, first, first.plusDays(2));
+        when(ledger.eventBefore(9L, 2)).thenReturn(created);
+
+        polled(created);
+        assertTrue(index.isBooked(1L, first.plusDays(1)));
+
+        polled(event(2, 9L, "MOVED", 2L, second, second.plusDays(1)));
+        assertFalse(index.isBooked(1L, first));
+        assertTrue(index.isBooked(2L, second));
+        verify(eventPublisher).publishEvent(new AvailabilityChangedEvent(new Stay(1L, first, first.plusDays(2)), new Stay(2L, second, second.plusDays(1))));
+
+        polled(event(3, 9L, "CANCELLED", 2L, second, second.plusDays(1)));
+        assertFalse(index.isBooked(2L, second));
+    }
+
+    @Test @DisplayName("poll skips the ledger events of changes already applied here")
+    void testPollSkipsLocalChanges() {
+        LocalDate day = LocalDate.of(2030, 1, 1);
+        ReservationChangedEvent created = new ReservationChangedEvent(9L, null, booking(1L, day, day.plusDays(1)));
+        index.onReservationChanging(created);
+        index.onReservationChanged(created);
+        ReservationChangedEvent cancelled = new ReservationChangedEvent(9L, booking(1L, day, day.plusDays(1)), null);
+        index.onReservationChanging(cancelled);
+        index.onReservationChanged(cancelled);
+
+        // replaying the create after its cancel would book the night again
+        polled(event(1, 9L, "CREATED", 1L, day, day.plusDays(1)));
+        assertFalse(index.isBooked(1L, day));
+    }
+
+    @Test @DisplayName("poll reloads everything once the reservations generation moves")
+    void testPollReloadsOnGeneration() {
+        LocalDate day = LocalDate.now().plusDays(3);
+        index.onReservationChanged(new ReservationChangedEvent(1L, null, booking(1L, day, day.plusDays(1))));
+        when(generations.current(ChangeGenerations.RESERVATIONS)).thenReturn(1L);
+        when(resRepo.findBookedStaysFrom(any())).thenReturn(List.of(stay(2L, day, day.plusDays(1))));
+
+        index.poll();
+
+        assertFalse(index.isBooked(1L, day));
+        assertTrue(index.isBooked(2L, day));
+        verify(changeFeed, times(2)).head();
+        verify(eventPublisher).publishEvent(AvailabilityChangedEvent.reloaded());
+    }
+}
\ No newline at end of file
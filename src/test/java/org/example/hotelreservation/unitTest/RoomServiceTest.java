@@ -1,13 +1,24 @@
 package org.example.hotelreservation.unitTest;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.example.hotelreservation.dto.*;
 import org.example.hotelreservation.entity.Room;
+import org.example.hotelreservation.event.ReservationChangedEvent;
+import org.example.hotelreservation.event.RoomChangedEvent;
+import org.example.hotelreservation.repository.ReservationRepository;
 import org.example.hotelreservation.repository.RoomRepository;
+import org.example.hotelreservation.service.ChangeGenerations;
+import org.example.hotelreservation.service.ReservationChangeFeed;
+import org.example.hotelreservation.service.ReservationLedger;
+import org.example.hotelreservation.service.RoomAvailabilityIndex;
+import org.example.hotelreservation.service.RoomCatalog;
 import org.example.hotelreservation.service.RoomService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.LocalDate;
 import java.util.Optional;
 import java.util.List;
 
@@ -17,12 +28,29 @@ import static org.mockito.Mockito.*;
 class RoomServiceTest {
 
     private RoomRepository roomRepo;
+    private SimpleMeterRegistry registry;
+    private RoomCatalog catalog;
+    private RoomAvailabilityIndex index;
+    private ApplicationEventPublisher publisher;
     private RoomService roomService;
 
     @BeforeEach
     void setUp() {
         roomRepo = mock(RoomRepository.class);
-        roomService = new RoomService(roomRepo);
+        registry = new SimpleMeterRegistry();
+        catalog = new RoomCatalog(roomRepo, mock(ChangeGenerations.class), registry);
+        index = new RoomAvailabilityIndex(mock(ReservationRepository.class), mock(ReservationChangeFeed.class), mock(ReservationLedger.class), mock(ChangeGenerations.class), event -> {});
+        publisher = mock(ApplicationEventPublisher.class);
+        roomService = new RoomService(roomRepo, catalog, index, publisher);
+    }
+
+    private static Room room(Long id, String number, String standard, double price) {
+        Room r = new Room();
+        r.setId(id);
+        r.setNumber(number);
+        r.setStandard(standard);
+        r.setPrice(price);
+        return r;
     }
 
     @Test @DisplayName("createRoom should save and return dto")
@@ -36,13 +64,15 @@ class RoomServiceTest {
         RoomResponseDTO resp = roomService.createRoom(req);
         assertEquals(1L, resp.getId());
         assertEquals("101", resp.getNumber());
+        verify(publisher).publishEvent(any(RoomChangedEvent.class));
     }
 
     @Test @DisplayName("getRoomDtoById – not found throws")
     void testGetRoomDtoById_notFound() {
-        when(roomRepo.findById(2L)).thenReturn(Optional.empty());
         RuntimeException ex = assertThrows(RuntimeException.class, () -> roomService.getRoomDtoById(2L));
         assertTrue(ex.getMessage().contains("Room not found"));
+        assertEquals(1.0, registry.get("room.catalog.lookups").tag("result", "miss").counter().count());
+        verify(roomRepo, never()).findById(any());
     }
 
     @Test @DisplayName("getRoomsByStandardDto returns filtered")
@@ -50,7 +80,8 @@ class RoomServiceTest {
         Room r = new Room();
         r.setId(5L);
         r.setStandard("Standard");
-        when(roomRepo.findByStandard("Standard")).thenReturn(List.of(r));
+        catalog.onRoomChanged(RoomChangedEvent.saved(r));
+        catalog.onRoomChanged(RoomChangedEvent.saved(room(6L, "601", "Deluxe", 300)));
         List<RoomResponseDTO> out = roomService.getRoomsByStandardDto("Standard");
         assertEquals(1, out.size());
         assertEquals(5L, out.getFirst().getId());
@@ -86,9 +117,11 @@ class RoomServiceTest {
         room.setStandard("Deluxe");
         room.setPrice(150);
 
-        when(roomRepo.findById(3L)).thenReturn(Optional.of(room));
+        catalog.onRoomChanged(RoomChangedEvent.saved(room));
 
         RoomResponseDTO dto = roomService.getRoomDtoById(3L);
+        verify(roomRepo, never()).findById(any());
+        assertEquals(1.0, registry.get("room.catalog.lookups").tag("result", "hit").counter().count());
 
         assertEquals(3L, dto.getId());
         assertEquals("202", dto.getNumber());
@@ -110,12 +143,52 @@ class RoomServiceTest {
         room2.setStandard("Deluxe");
         room2.setPrice(200);
 
-        when(roomRepo.findAll()).thenReturn(List.of(room1, room2));
+        catalog.onRoomChanged(RoomChangedEvent.saved(room2));
+        catalog.onRoomChanged(RoomChangedEvent.saved(room1));
 
-        List<RoomResponseDTO> dtos = roomService.getAllRoomsDto();
+        PageDTO<RoomResponseDTO> page = roomService.getAllRoomsDto(0L, 100);
+        List<RoomResponseDTO> dtos = page.getItems();
+        assertNull(page.getNextAfter());
+
+        PageDTO<RoomResponseDTO> first = roomService.getAllRoomsDto(0L, 1);
+        assertEquals(1L, first.getItems().getFirst().getId());
+        assertEquals(1L, first.getNextAfter());
+        assertEquals(2L, roomService.getAllRoomsDto(first.getNextAfter(), 1).getItems().getFirst().getId());
+        verify(roomRepo, never()).findAll();
 
         assertEquals(2, dtos.size());
         assertEquals("101", dtos.get(0).getNumber());
         assertEquals("102", dtos.get(1).getNumber());
     }
+
+    @Test @DisplayName("findAvailableRooms filters by standard, price and occupancy, cheapest first")
+    void testFindAvailableRooms() {
+        LocalDate from = LocalDate.of(2030, 3, 10);
+        LocalDate to = from.plusDays(3);
+        catalog.onRoomChanged(RoomChangedEvent.saved(room(1L, "101", "Deluxe", 300)));
+        catalog.onRoomChanged(RoomChangedEvent.saved(room(2L, "102", "Deluxe", 200)));
+        catalog.onRoomChanged(RoomChangedEvent.saved(room(3L, "103", "Deluxe", 250)));
+        catalog.onRoomChanged(RoomChangedEvent.saved(room(4L, "104", "Standard", 100)));
+        index.onReservationChanged(new ReservationChangedEvent(9L, null, new ReservationChangedEvent.Booking(1L, 3L, from.plusDays(2), from.plusDays(3))));
+
+        List<RoomResponseDTO> deluxe = roomService.findAvailableRooms(from, to, "Deluxe", null);
+        assertEquals(List.of(2L, 1L), deluxe.stream().map(RoomResponseDTO::getId).toList());
+
+        List<RoomResponseDTO> cheap = roomService.findAvailableRooms(from, to, null, 250.0);
+        assertEquals(List.of(4L, 2L), cheap.stream().map(RoomResponseDTO::getId).toList());
+
+        List<RoomResponseDTO> afterStay = roomService.findAvailableRooms(to, to.plusDays(1), "Deluxe", 250.0);
+        assertEquals(List.of(2L, 3L), afterStay.stream().map(RoomResponseDTO::getId).toList());
+
+        assertTrue(roomService.findAvailableRooms(from, to, "Suite", null).isEmpty());
+        assertThrows(RuntimeException.class, () -> roomService.findAvailableRooms(to, from, null, null));
+    }
+
+    @Test @DisplayName("deleted rooms disappear from the availability search")
+    void testFindAvailableRooms_afterDelete() {
+        LocalDate from = LocalDate.of(2030, 3, 10);
+        catalog.onRoomChanged(RoomChangedEvent.saved(room(1L, "101", "Deluxe", 300)));
+        catalog.onRoomChanged(RoomChangedEvent.deleted(1L));
+        assertTrue(roomService.findAvailableRooms(from, from.plusDays(1), null, null).isEmpty());
+    }
 }
\ No newline at end of file
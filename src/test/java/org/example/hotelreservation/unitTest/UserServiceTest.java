@@ -3,12 +3,19 @@ package org.example.hotelreservation.unitTest;
 import org.example.hotelreservation.dto.*;
 import org.example.hotelreservation.entity.Role;
 import org.example.hotelreservation.entity.User;
+import org.example.hotelreservation.event.UserChangedEvent;
+import org.example.hotelreservation.repository.ReservationIdView;
+import org.example.hotelreservation.repository.ReservationRepository;
+import org.example.hotelreservation.repository.UserPrincipalView;
 import org.example.hotelreservation.repository.UserRepository;
+import org.example.hotelreservation.security.AuthenticatedUser;
 import org.example.hotelreservation.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Arrays;
@@ -21,14 +28,18 @@ import static org.mockito.Mockito.*;
 class UserServiceTest {
 
     private UserRepository userRepo;
+    private ReservationRepository resRepo;
     private PasswordEncoder pwEncoder;
+    private ApplicationEventPublisher publisher;
     private UserService userService;
 
     @BeforeEach
     void setUp() {
         userRepo = mock(UserRepository.class);
         pwEncoder = mock(PasswordEncoder.class);
-        userService = new UserService(userRepo, pwEncoder);
+        resRepo = mock(ReservationRepository.class);
+        publisher = mock(ApplicationEventPublisher.class);
+        userService = new UserService(userRepo, resRepo, pwEncoder, publisher);
     }
 
     @Test @DisplayName("registerUser should encode and save")
@@ -70,6 +81,25 @@ class UserServiceTest {
         assertEquals("u2", got.get().getUsername());
     }
 
+    @Test @DisplayName("findPrincipalByUsername maps the projection to an AuthenticatedUser")
+    void testFindPrincipalByUsername() {
+        UserPrincipalView view = mock(UserPrincipalView.class);
+        when(view.getId()).thenReturn(4L);
+        when(view.getUsername()).thenReturn("u4");
+        when(view.getPassword()).thenReturn("ENC");
+        when(view.getRole()).thenReturn(Role.ADMIN);
+        when(userRepo.findPrincipalByUsername("u4")).thenReturn(Optional.of(view));
+
+        AuthenticatedUser principal = userService.findPrincipalByUsername("u4").orElseThrow();
+        assertEquals(4L, principal.id());
+        assertEquals("ENC", principal.getPassword());
+        assertEquals("ROLE_ADMIN", principal.getAuthorities().iterator().next().getAuthority());
+        assertFalse(principal.toString().contains("ENC"));
+        principal.eraseCredentials();
+        assertNull(principal.getPassword());
+        verify(userRepo, never()).findByUsername(any());
+    }
+
     @Test @DisplayName("getUserDtoByUsername – success")
     void testGetUserDtoByUsername_success() {
         User u = new User();
@@ -93,19 +123,17 @@ class UserServiceTest {
 
     @Test @DisplayName("getUserSummaryByUsername – success")
     void testGetUserSummaryByUsername_success() {
-        User u = new User();
-        u.setId(6L);
-        u.setUsername("u5");
-        when(userRepo.findByUsername("u5")).thenReturn(Optional.of(u));
+        when(userRepo.findSummaryByUsername("u5")).thenReturn(Optional.of(new UserSummaryDTO(6L, "u5")));
 
         UserSummaryDTO summary = userService.getUserSummaryByUsername("u5");
         assertEquals(6L, summary.getId());
         assertEquals("u5", summary.getUsername());
+        verify(userRepo, never()).findByUsername(any());
     }
 
     @Test @DisplayName("getUserSummaryByUsername – not found throws")
     void testGetUserSummaryByUsername_notFound() {
-        when(userRepo.findByUsername("u6")).thenReturn(Optional.empty());
+        when(userRepo.findSummaryByUsername("u6")).thenReturn(Optional.empty());
         RuntimeException ex = assertThrows(RuntimeException.class, () -> userService.getUserSummaryByUsername("u6"));
         assertTrue(ex.getMessage().contains("User not found"));
     }
@@ -130,9 +158,12 @@ class UserServiceTest {
         u.setRole(Role.valueOf("USER"));
         when(userRepo.findById(8L)).thenReturn(Optional.of(u));
 
+        when(resRepo.findIdsByUserId(8L)).thenReturn(List.of(31L, 32L));
+
         UserResponseDTO dto = userService.getUserDTOById(8L);
         assertEquals(8L, dto.getId());
         assertEquals("u8", dto.getUsername());
+        assertEquals(List.of(31L, 32L), dto.getReservations());
     }
 
     @Test @DisplayName("getUserDTOById – not found throws")
@@ -155,17 +186,44 @@ class UserServiceTest {
         verify(userRepo).findAll();
     }
 
+    @Test @DisplayName("getAllUsersDto fetches reservation ids for all users in one query")
+    void testGetAllUsersDto() {
+        User u = new User();
+        u.setId(9L);
+        u.setRole(Role.USER);
+        User uu = new User();
+        uu.setId(10L);
+        uu.setRole(Role.USER);
+        when(userRepo.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(101))).thenReturn(List.of(u, uu));
+        ReservationIdView row = mock(ReservationIdView.class);
+        when(row.getUserId()).thenReturn(9L);
+        when(row.getId()).thenReturn(40L);
+        when(resRepo.findIdsByUserIdIn(List.of(9L, 10L))).thenReturn(List.of(row));
+
+        List<UserResponseDTO> list = userService.getAllUsersDto(0L, 100).getItems();
+        assertEquals(List.of(40L), list.get(0).getReservations());
+        assertEquals(List.of(), list.get(1).getReservations());
+        verify(resRepo, times(1)).findIdsByUserIdIn(any());
+        verify(resRepo, never()).findIdsByUserId(any());
+    }
+
     @Test @DisplayName("getAllUsersSummary returns a list of summary")
     void testGetAllUsersSummary() {
-        User u = new User();
-        u.setId(1L);
-        u.setUsername("u11");
-        u.setRole(Role.valueOf("USER"));
-        when(userRepo.findAll()).thenReturn(List.of(u));
-        List<UserSummaryDTO> list = userService.getAllUsersSummary();
+        when(userRepo.findSummariesAfter(0L, Limit.of(101))).thenReturn(List.of(new UserSummaryDTO(1L, "u11")));
+        List<UserSummaryDTO> list = userService.getAllUsersSummary(0L, 100).getItems();
         assertEquals(1, list.size());
         assertEquals("u11", list.getFirst().getUsername());
-        verify(userRepo).findAll();
+        verify(userRepo, never()).findAll();
+        verify(userRepo, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test @DisplayName("findUserSummaryById reads a single summary row")
+    void testFindUserSummaryById() {
+        when(userRepo.findSummaryById(12L)).thenReturn(Optional.of(new UserSummaryDTO(12L, "u12")));
+
+        assertEquals("u12", userService.findUserSummaryById(12L).orElseThrow().getUsername());
+        assertTrue(userService.findUserSummaryById(13L).isEmpty());
+        verify(userRepo, never()).findById(any());
     }
 
     @Test @DisplayName("updateUser – success")
@@ -187,6 +245,7 @@ class UserServiceTest {
         ArgumentCaptor<User> cap = ArgumentCaptor.forClass(User.class);
         verify(userRepo).save(cap.capture());
         assertEquals("newpw", cap.getValue().getPassword());
+        verify(publisher).publishEvent(new UserChangedEvent(3L));
     }
 
     @Test @DisplayName("updateUser – missing throws")
@@ -199,5 +258,6 @@ class UserServiceTest {
     void testDeleteUser() {
         userService.deleteUser(99L);
         verify(userRepo).deleteById(99L);
+        verify(publisher).publishEvent(new UserChangedEvent(99L));
     }
 }
\ No newline at end of file